@@ -0,0 +1,74 @@
+package com.example.truck.dto.fipe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialização da resposta de modelos da FIPE; marcas grandes de
+ * caminhão passam de mil modelos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FipeModelJsonBenchmark {
+
+    @Param({"150", "1500"})
+    public int modelCount;
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private FipeModelResponseDTO response;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        reader = mapper.readerFor(FipeModelResponseDTO.class);
+        writer = mapper.writerFor(FipeModelResponseDTO.class);
+
+        List<FipeModelDTO> models = new ArrayList<>(modelCount);
+        for (int i = 0; i < modelCount; i++) {
+            models.add(item(String.valueOf(5000 + i), "R-" + i + " 6x4 Diesel (E5) Caminhão"));
+        }
+        List<FipeModelDTO> years = new ArrayList<>();
+        for (int year = 2025; year >= 1995; year--) {
+            years.add(item(year + "-3", year + " Diesel"));
+        }
+
+        response = new FipeModelResponseDTO();
+        response.setModels(models);
+        response.setYears(years);
+        json = writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public FipeModelResponseDTO deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(response);
+    }
+
+    private static FipeModelDTO item(String code, String name) {
+        FipeModelDTO dto = new FipeModelDTO();
+        dto.setCode(code);
+        dto.setName(name);
+        return dto;
+    }
+}
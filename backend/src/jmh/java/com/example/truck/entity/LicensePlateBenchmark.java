@@ -0,0 +1,44 @@
+package com.example.truck.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LicensePlateBenchmark {
+
+    private static final Pattern PLATE_PATTERN = Pattern.compile("^(?:[A-Z]{3}\\d{4}|[A-Z]{3}\\d[A-Z]\\d{2})$");
+
+    @Param({"ABC1234", "abc-1d23", " xyz 9876 "})
+    public String plate;
+
+    @Benchmark
+    public String normalizeLicensePlate() {
+        return TruckEntity.normalizeLicensePlate(plate);
+    }
+
+    @Benchmark
+    public String normalizeLicensePlateRegex() {
+        return plate.replaceAll("[^A-Za-z0-9]", "").toUpperCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return LicensePlate.isValid(plate);
+    }
+
+    @Benchmark
+    public boolean isValidRegex() {
+        return PLATE_PATTERN.matcher(plate).matches();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import com.example.truck.dto.fipe.FipeYearDTO;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.repository.TruckRepository;
+import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipePriceParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de escrita do {@link TruckService} sem rede nem banco: o cliente
+ * FIPE devolve dados fixos e o repositório apenas ecoa a entidade.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TruckServiceBenchmark {
+
+    @Param({"R$ 450.000,00", "R$ 1.234.567,89"})
+    public String price;
+
+    private TruckService truckService;
+    private TruckEntity existing;
+    private ExecutorService writeExecutor;
+
+    @Setup
+    public void setUp() {
+        existing = new TruckEntity("ABC1234", "Scania", "R 450", 2022);
+        existing.setId(1L);
+        writeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        truckService = new TruckService(repository(existing), new StubFipeApiClient(price), event -> {
+        }, new SimpleMeterRegistry(), writeExecutor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeExecutor.close();
+    }
+
+    @Benchmark
+    public TruckEntity createTruck() {
+        return truckService.createTruck(new TruckEntity("XYZ9D87", "Scania", "R 450", 2022));
+    }
+
+    @Benchmark
+    public TruckEntity updateTruck() {
+        existing.setLicensePlate("ABC1234");
+        return truckService.updateTruck(1L, new TruckEntity("XYZ9D87", "Scania", "R 450", 2021));
+    }
+
+    @Benchmark
+    public BigDecimal parseFipePrice() {
+        return FipePriceParser.parse(price);
+    }
+
+    @Benchmark
+    public BigDecimal parseFipePriceRegex() {
+        return new BigDecimal(price.replaceAll("[^\\d,]", "").replace(",", "."));
+    }
+
+    private static TruckRepository repository(TruckEntity existing) {
+        return (TruckRepository) Proxy.newProxyInstance(TruckRepository.class.getClassLoader(),
+                new Class<?>[]{TruckRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isCachedLicensePlate" -> false;
+                    case "insertIfAbsent" -> true;
+                    case "save" -> args[0];
+                    case "findById" -> Optional.of(existing);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "TruckRepositoryStub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static final class StubFipeApiClient extends FipeApiClient {
+
+        private final List<FipeYearDTO> years = new ArrayList<>();
+        private final FipePriceResponseDTO priceResponse = new FipePriceResponseDTO();
+
+        StubFipeApiClient(String price) {
+            super(null, null, null, null, null, 1, Duration.ZERO);
+            for (int year = 2025; year >= 1995; year--) {
+                FipeYearDTO dto = new FipeYearDTO();
+                dto.setCode(year + "-3");
+                dto.setName(year + " Diesel");
+                years.add(dto);
+            }
+            priceResponse.setPrice(price);
+            priceResponse.setReferenceMonth("outubro de 2025");
+        }
+
+        @Override
+        public String getBrandCode(String brandName) {
+            return "109";
+        }
+
+        @Override
+        public String getModelCode(String brandCode, String modelName) {
+            return "5940";
+        }
+
+        @Override
+        public List<FipeYearDTO> getYearsByModel(String brandCode, String modelCode) {
+            return years;
+        }
+
+        @Override
+        public FipePriceResponseDTO getPrice(String brandCode, String modelCode, String yearCode) {
+            return priceResponse;
+        }
+    }
+}
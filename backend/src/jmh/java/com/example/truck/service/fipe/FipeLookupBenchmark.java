@@ -0,0 +1,72 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeModelDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca nome → código no catálogo FIPE: índice ({@link FipeNameIndex}) contra
+ * a varredura linear com equalsIgnoreCase usada antes do índice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FipeLookupBenchmark {
+
+    @Param({"100", "1000"})
+    public int catalogSize;
+
+    private List<FipeModelDTO> models;
+    private FipeNameIndex index;
+    private String exactName;
+    private String looseName;
+
+    @Setup
+    public void setUp() {
+        models = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            FipeModelDTO model = new FipeModelDTO();
+            model.setCode(String.valueOf(5000 + i));
+            model.setName("R-" + i + " 6x4 Diesel (E5) Caminhão");
+            models.add(model);
+        }
+        index = FipeNameIndex.of(models, FipeModelDTO::getName, FipeModelDTO::getCode);
+
+        String last = models.get(catalogSize - 1).getName();
+        exactName = last;
+        looseName = "  " + last.toUpperCase().replace("CAMINHÃO", "CAMINHAO") + " ";
+    }
+
+    @Benchmark
+    public String indexExact() {
+        return index.find(exactName);
+    }
+
+    @Benchmark
+    public String indexNormalized() {
+        return index.find(looseName);
+    }
+
+    @Benchmark
+    public String linearScan() {
+        for (FipeModelDTO model : models) {
+            if (model.getName().equalsIgnoreCase(exactName)) return model.getCode();
+        }
+        return null;
+    }
+
+    @Benchmark
+    public FipeNameIndex buildIndex() {
+        return FipeNameIndex.of(models, FipeModelDTO::getName, FipeModelDTO::getCode);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.truck.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Perfil do stub da FIPE: tamanho do catálogo sintético, latência (base +
+ * jitter uniforme) e fração de respostas {@code 503}.
+ */
+public record FipeStubProfile(String name, int brands, int modelsPerBrand, int yearsPerModel,
+                              Duration latency, Duration jitter, double errorRate) {
+
+    private static final Map<String, FipeStubProfile> PRESETS = Map.of(
+            "fast", new FipeStubProfile("fast", 5, 20, 10, Duration.ZERO, Duration.ZERO, 0),
+            "realistic", new FipeStubProfile("realistic", 30, 200, 15, Duration.ofMillis(80), Duration.ofMillis(40), 0.01),
+            "degraded", new FipeStubProfile("degraded", 30, 200, 15, Duration.ofMillis(800), Duration.ofMillis(400), 0.2));
+
+    public static FipeStubProfile of(String name) {
+        FipeStubProfile profile = PRESETS.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Perfil do stub FIPE inválido: " + name + " (use " + PRESETS.keySet() + ")");
+        }
+        return profile;
+    }
+
+    public FipeStubProfile withLatency(Duration latency, Duration jitter) {
+        return new FipeStubProfile(name, brands, modelsPerBrand, yearsPerModel, latency, jitter, errorRate);
+    }
+
+    public FipeStubProfile withErrorRate(double errorRate) {
+        return new FipeStubProfile(name, brands, modelsPerBrand, yearsPerModel, latency, jitter, errorRate);
+    }
+
+    public FipeStubProfile withCatalog(int brands, int modelsPerBrand, int yearsPerModel) {
+        return new FipeStubProfile(name, brands, modelsPerBrand, yearsPerModel, latency, jitter, errorRate);
+    }
+
+    public int firstYear() {
+        return 2025 - yearsPerModel + 1;
+    }
+
+    public static String brandName(int brand) {
+        return "Marca " + brand;
+    }
+
+    public static String modelName(int model) {
+        return "Modelo " + model;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.truck.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stub HTTP local dos endpoints da FIPE usados pelo {@code FipeApiClient}
+ * (marcas → modelos → anos → preço). O catálogo é sintético e determinístico:
+ * marcas {@code 1..brands}, modelos {@code marca * 1000 + 1..modelsPerBrand} e
+ * anos terminando em 2025, com os nomes de {@link FipeStubProfile}.
+ */
+public final class FipeStubServer implements AutoCloseable {
+
+    static final String BASE_PATH = "/fipe/api/v1/caminhoes";
+
+    private static final Locale PT_BR = Locale.of("pt", "BR");
+
+    private final HttpServer server;
+    private final FipeStubProfile profile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private FipeStubServer(FipeStubProfile profile) throws IOException {
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(BASE_PATH, this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public static FipeStubServer start(FipeStubProfile profile) throws IOException {
+        FipeStubServer stub = new FipeStubServer(profile);
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            simulateLatency();
+
+            if (profile.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < profile.errorRate()) {
+                errors.increment();
+                send(exchange, 503, Map.of("error", "stub indisponível"));
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+            Object body = route(path.startsWith("/") ? path.substring(1).split("/") : new String[0]);
+            if (body == null) {
+                send(exchange, 404, Map.of("error", "não encontrado"));
+            } else {
+                send(exchange, 200, body);
+            }
+        }
+    }
+
+    private Object route(String[] segments) {
+        if (segments.length == 0 || !segments[0].equals("marcas")) return null;
+        if (segments.length == 1) return brands();
+
+        int brand = parse(segments[1]);
+        if (brand < 1 || brand > profile.brands()) return null;
+        if (segments.length == 3 && segments[2].equals("modelos")) return models(brand);
+        if (segments.length < 5 || !segments[2].equals("modelos") || !segments[4].equals("anos")) return null;
+
+        int model = parse(segments[3]) - brand * 1000;
+        if (model < 1 || model > profile.modelsPerBrand()) return null;
+        if (segments.length == 5) return years();
+        if (segments.length != 6) return null;
+
+        int year = parse(segments[5].split("-")[0]);
+        if (year < profile.firstYear() || year > 2025) return null;
+        return price(brand, model, year);
+    }
+
+    private List<Map<String, String>> brands() {
+        List<Map<String, String>> brands = new ArrayList<>(profile.brands());
+        for (int brand = 1; brand <= profile.brands(); brand++) {
+            brands.add(Map.of("codigo", String.valueOf(brand), "nome", FipeStubProfile.brandName(brand)));
+        }
+        return brands;
+    }
+
+    private Map<String, Object> models(int brand) {
+        List<Map<String, String>> models = new ArrayList<>(profile.modelsPerBrand());
+        for (int model = 1; model <= profile.modelsPerBrand(); model++) {
+            models.add(Map.of("codigo", String.valueOf(brand * 1000 + model), "nome", FipeStubProfile.modelName(model)));
+        }
+        return Map.of("modelos", models, "anos", years());
+    }
+
+    private List<Map<String, String>> years() {
+        List<Map<String, String>> years = new ArrayList<>(profile.yearsPerModel());
+        for (int year = 2025; year >= profile.firstYear(); year--) {
+            years.add(Map.of("codigo", year + "-3", "nome", year + " Diesel"));
+        }
+        return years;
+    }
+
+    private Map<String, Object> price(int brand, int model, int year) {
+        // Preço determinístico por marca/modelo/ano, depreciando 5% ao ano
+        double value = (150_000 + (brand * 7_919L + model * 104_729L) % 600_000) * Math.pow(0.95, 2025 - year);
+        return Map.of(
+                "Valor", String.format(PT_BR, "R$ %,.2f", value),
+                "Marca", FipeStubProfile.brandName(brand),
+                "Modelo", FipeStubProfile.modelName(model),
+                "AnoModelo", year,
+                "Combustivel", "Diesel",
+                "CodigoFipe", String.format("%03d%03d-1", brand, model % 1000),
+                "MesReferencia", "outubro de 2025",
+                "SiglaCombustivel", "D");
+    }
+
+    private void simulateLatency() {
+        long millis = profile.latency().toMillis();
+        long jitter = profile.jitter().toMillis();
+        if (jitter > 0) millis += ThreadLocalRandom.current().nextLong(jitter + 1);
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int parse(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.truck.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latências (ns) de um worker; confinado à thread e combinado ao fim de cada
+ * etapa com {@link #merge}.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+        if (!success) errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) samples = Arrays.copyOf(samples, size + other.size);
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    LoadTestResult result(String scenario, int concurrency, long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        return new LoadTestResult(scenario, concurrency, size, errors, size / seconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)), millis(size == 0 ? 0 : sorted[size - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
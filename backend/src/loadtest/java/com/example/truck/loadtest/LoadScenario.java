@@ -0,0 +1,53 @@
+package com.example.truck.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cenários exercitados contra o {@code TruckController}: CRUD e o proxy
+ * {@code /fipe/**}. Qualquer resposta fora de 2xx conta como erro.
+ */
+enum LoadScenario {
+
+    CREATE {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            return context.post("/api/trucks", context.truckJson(context.nextPlate(), random));
+        }
+    },
+    READ {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            return context.get("/api/trucks/" + context.randomTruck(random).id());
+        }
+    },
+    UPDATE {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            LoadTestContext.SeededTruck truck = context.randomTruck(random);
+            return context.put("/api/trucks/" + truck.id(), context.truckJson(truck.licensePlate(), random));
+        }
+    },
+    LIST {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            return context.get("/api/trucks?limit=50");
+        }
+    },
+    FIPE_MODELS {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            return context.get("/api/trucks/fipe/brands/" + context.randomBrand(random) + "/models");
+        }
+    },
+    FIPE_PRICE {
+        @Override
+        HttpRequest request(LoadTestContext context, ThreadLocalRandom random) {
+            int brand = context.randomBrand(random);
+            return context.get("/api/trucks/fipe/brands/" + brand + "/models/" + context.randomModelCode(brand, random)
+                    + "/years/" + context.randomYear(random) + "-3");
+        }
+    };
+
+    abstract HttpRequest request(LoadTestContext context, ThreadLocalRandom random);
+}
@@ -0,0 +1,102 @@
+package com.example.truck.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado compartilhado pelos workers: endereço da aplicação, perfil do stub
+ * (para montar marca/modelo/ano existentes no catálogo) e os caminhões
+ * semeados usados por leitura e atualização.
+ */
+final class LoadTestContext {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final FipeStubProfile profile;
+    private final List<SeededTruck> trucks = new CopyOnWriteArrayList<>();
+    private final AtomicLong plates = new AtomicLong(ThreadLocalRandom.current().nextLong(1_000_000));
+
+    record SeededTruck(long id, String licensePlate) {
+    }
+
+    LoadTestContext(String baseUrl, FipeStubProfile profile) {
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+    }
+
+    void addTruck(long id, String licensePlate) {
+        trucks.add(new SeededTruck(id, licensePlate));
+    }
+
+    SeededTruck randomTruck(ThreadLocalRandom random) {
+        return trucks.get(random.nextInt(trucks.size()));
+    }
+
+    int randomBrand(ThreadLocalRandom random) {
+        return 1 + random.nextInt(profile.brands());
+    }
+
+    int randomModel(ThreadLocalRandom random) {
+        return 1 + random.nextInt(profile.modelsPerBrand());
+    }
+
+    int randomModelCode(int brand, ThreadLocalRandom random) {
+        return brand * 1000 + randomModel(random);
+    }
+
+    int randomYear(ThreadLocalRandom random) {
+        return profile.firstYear() + random.nextInt(profile.yearsPerModel());
+    }
+
+    /**
+     * Placa Mercosul única (LLLNLNN) derivada de um contador.
+     */
+    String nextPlate() {
+        long n = plates.getAndIncrement();
+        char[] plate = new char[7];
+        plate[6] = (char) ('0' + n % 10);
+        n /= 10;
+        plate[5] = (char) ('0' + n % 10);
+        n /= 10;
+        plate[4] = (char) ('A' + n % 26);
+        n /= 26;
+        plate[3] = (char) ('0' + n % 10);
+        n /= 10;
+        for (int i = 2; i >= 0; i--) {
+            plate[i] = (char) ('A' + n % 26);
+            n /= 26;
+        }
+        return new String(plate);
+    }
+
+    String truckJson(String licensePlate, ThreadLocalRandom random) {
+        return """
+                {"licensePlate":"%s","brand":"%s","model":"%s","manufacturingYear":%d}"""
+                .formatted(licensePlate, FipeStubProfile.brandName(randomBrand(random)),
+                        FipeStubProfile.modelName(randomModel(random)), randomYear(random));
+    }
+
+    HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    HttpRequest post(String path, String json) {
+        return builder(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    HttpRequest put(String path, String json) {
+        return builder(path).header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+}
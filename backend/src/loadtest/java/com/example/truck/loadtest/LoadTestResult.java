@@ -0,0 +1,8 @@
+package com.example.truck.loadtest;
+
+/**
+ * Resultado de um cenário em um nível de concorrência; latências em ms.
+ */
+public record LoadTestResult(String scenario, int concurrency, long requests, long errors, double throughput,
+                             double p50, double p90, double p99, double max) {
+}
@@ -0,0 +1,216 @@
+package com.example.truck.loadtest;
+
+import com.example.truck.TruckFleetManagementApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga offline: sobe um PostgreSQL embarcado, o stub da FIPE e a
+ * aplicação em porta aleatória, e executa cada cenário em níveis crescentes
+ * de concorrência, reportando vazão e percentis de latência.
+ *
+ * <p>Argumentos ({@code --chave=valor}): {@code profile} (fast|realistic|degraded),
+ * {@code latency}, {@code jitter}, {@code error-rate}, {@code brands},
+ * {@code models}, {@code years}, {@code scenarios}, {@code concurrency},
+ * {@code warmup}, {@code duration}, {@code seed}, {@code output},
+ * {@code virtual-threads} (liga {@code spring.threads.virtual.enabled} na aplicação) e
+ * {@code datasource-url}/{@code datasource-username}/{@code datasource-password}
+ * para usar um banco externo no lugar do embarcado.
+ */
+public final class TruckLoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private TruckLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        FipeStubProfile profile = profile(options);
+        List<LoadScenario> scenarios = Arrays.stream(options.getOrDefault("scenarios",
+                        "create,read,update,list,fipe_models,fipe_price").split(","))
+                .map(s -> LoadScenario.valueOf(s.trim().toUpperCase(Locale.ROOT)))
+                .toList();
+        int[] concurrencyLevels = Arrays.stream(options.getOrDefault("concurrency", "1,8,32,64").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim()))
+                .toArray();
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "20s"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "200"));
+        Path output = Path.of(options.getOrDefault("output", "target/loadtest-result.json"));
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        EmbeddedPostgres postgres = options.containsKey("datasource-url") ? null : EmbeddedPostgres.start();
+        try (FipeStubServer stub = FipeStubServer.start(profile);
+             ConfigurableApplicationContext app = startApplication(options, postgres, stub);
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadTestContext context = new LoadTestContext("http://localhost:" + port, profile);
+            seed(client, context, seed);
+
+            List<LoadTestResult> results = new ArrayList<>();
+            for (LoadScenario scenario : scenarios) {
+                for (int concurrency : concurrencyLevels) {
+                    run(client, context, scenario, concurrency, warmup);
+                    LoadTestResult result = run(client, context, scenario, concurrency, duration);
+                    results.add(result);
+                    print(result);
+                }
+            }
+
+            write(output, profile, Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false")), stub, results);
+            System.out.printf("%nStub FIPE: %d requisições, %d erros injetados. Resultado em %s%n",
+                    stub.getRequests(), stub.getErrors(), output.toAbsolutePath());
+        } finally {
+            if (postgres != null) postgres.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(Map<String, String> options, EmbeddedPostgres postgres,
+                                                                   FipeStubServer stub) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("fipe.api.base.url", stub.baseUrl());
+        properties.put("fipe.mirror.enabled", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("spring.threads.virtual.enabled", options.getOrDefault("virtual-threads", "false"));
+        if (postgres != null) {
+            properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.password", "");
+        } else {
+            properties.put("spring.datasource.url", options.get("datasource-url"));
+            properties.put("spring.datasource.username", options.getOrDefault("datasource-username", "postgres"));
+            properties.put("spring.datasource.password", options.getOrDefault("datasource-password", ""));
+        }
+        return new SpringApplicationBuilder(TruckFleetManagementApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    private static void seed(HttpClient client, LoadTestContext context, int count) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (count > 0) {
+            String plate = context.nextPlate();
+            HttpResponse<String> response = client.send(
+                    context.post("/api/trucks", context.truckJson(plate, random)), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 201) {
+                context.addTruck(JSON.readTree(response.body()).get("id").asLong(), plate);
+                count--;
+            } else if (response.statusCode() != 503) {
+                throw new IllegalStateException("Falha ao semear caminhões: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    private static LoadTestResult run(HttpClient client, LoadTestContext context, LoadScenario scenario,
+                                      int concurrency, Duration duration) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        List<Future<LatencyRecorder>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        boolean success;
+                        try {
+                            int status = client.send(scenario.request(context, random),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                            success = status >= 200 && status < 300;
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                        recorder.record(System.nanoTime() - begin, success);
+                    }
+                    return recorder;
+                }));
+            }
+        }
+
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> worker : workers) {
+            total.merge(worker.get());
+        }
+        return total.result(scenario.name().toLowerCase(Locale.ROOT), concurrency, System.nanoTime() - start);
+    }
+
+    private static void print(LoadTestResult r) {
+        System.out.printf(Locale.ROOT, "%-12s c=%-4d req=%-8d err=%-6d %9.1f req/s  p50=%8.2fms  p90=%8.2fms  p99=%8.2fms  max=%8.2fms%n",
+                r.scenario(), r.concurrency(), r.requests(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p99(), r.max());
+    }
+
+    private static void write(Path output, FipeStubProfile profile, boolean virtualThreads, FipeStubServer stub,
+                              List<LoadTestResult> results) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profile", profile);
+        report.put("virtualThreads", virtualThreads);
+        report.put("fipeStubRequests", stub.getRequests());
+        report.put("fipeStubErrors", stub.getErrors());
+        report.put("results", results);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        JSON.writeValue(output.toFile(), report);
+    }
+
+    private static FipeStubProfile profile(Map<String, String> options) {
+        FipeStubProfile profile = FipeStubProfile.of(options.getOrDefault("profile", "realistic"));
+        if (options.containsKey("latency") || options.containsKey("jitter")) {
+            profile = profile.withLatency(
+                    DurationStyle.detectAndParse(options.getOrDefault("latency", profile.latency().toMillis() + "ms")),
+                    DurationStyle.detectAndParse(options.getOrDefault("jitter", profile.jitter().toMillis() + "ms")));
+        }
+        if (options.containsKey("error-rate")) {
+            profile = profile.withErrorRate(Double.parseDouble(options.get("error-rate")));
+        }
+        if (options.containsKey("brands") || options.containsKey("models") || options.containsKey("years")) {
+            profile = profile.withCatalog(
+                    Integer.parseInt(options.getOrDefault("brands", String.valueOf(profile.brands()))),
+                    Integer.parseInt(options.getOrDefault("models", String.valueOf(profile.modelsPerBrand()))),
+                    Integer.parseInt(options.getOrDefault("years", String.valueOf(profile.yearsPerModel()))));
+        }
+        return profile;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --chave=valor)");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
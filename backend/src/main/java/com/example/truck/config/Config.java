@@ -1,15 +1,57 @@
 package com.example.truck.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
+@EnableScheduling
 public class Config {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    /**
+     * Executor das consultas FIPE em background (importação, avaliação,
+     * reavaliação e espelho). Com {@code spring.threads.virtual.enabled} as
+     * threads passam a ser virtuais, mas o pool continua limitado a
+     * {@code parallelism}: o limite é de chamadas simultâneas à FIPE, não de threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService fipeExecutor(@Value("${fipe.client.parallelism:16}") int parallelism,
+                                        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("fipe-", 0).factory()
+                : Thread.ofPlatform().name("fipe-", 0).daemon().factory();
+        return Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    /**
+     * Etapas paralelas de um cadastro/atualização (carga do caminhão, preço
+     * FIPE especulativo). Só aguardam I/O, então usam uma thread virtual por
+     * tarefa; o limite de chamadas à FIPE continua no bulkhead do cliente.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService truckWriteExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("truck-write-", 0).factory());
+    }
+
+    /**
+     * Trabalho disparado pelos eventos de alteração de caminhões (entrega aos
+     * assinantes SSE, histórico de preços, recarga dos agregados da frota):
+     * uma thread virtual por tarefa, fora da thread de quem escreveu.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService truckEventExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("truck-events-", 0).factory());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService valuationRetryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("valuation-retry").daemon().factory());
     }
 
 }
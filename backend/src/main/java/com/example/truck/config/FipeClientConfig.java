@@ -0,0 +1,162 @@
+package com.example.truck.config;
+
+import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipeCatalogCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Cliente HTTP da FIPE: HttpClient 5 clássico (HTTP/1.1) com pool de conexões
+ * persistentes. Não usa HTTP/2: o {@code RestTemplate} só tem fábrica para o
+ * cliente clássico, e com keep-alive e o bulkhead limitando as chamadas
+ * simultâneas a multiplexação não reduziria conexões nem latência de forma
+ * relevante; o pool mantém métricas e timeouts por tipo de chamada.
+ */
+@Configuration
+public class FipeClientConfig {
+
+    @Value("${fipe.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${fipe.client.pool-timeout:1s}")
+    private Duration poolTimeout;
+
+    @Value("${fipe.client.catalog-read-timeout:5s}")
+    private Duration catalogReadTimeout;
+
+    @Value("${fipe.client.price-read-timeout:8s}")
+    private Duration priceReadTimeout;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager fipeConnectionManager(
+            @Value("${fipe.client.max-connections:50}") int maxConnections) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(priceReadTimeout))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient fipeHttpClient(PoolingHttpClientConnectionManager fipeConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(fipeConnectionManager)
+                .setDefaultRequestConfig(requestConfig(catalogReadTimeout))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient fipeHttpClient) {
+        RequestConfig catalogConfig = requestConfig(catalogReadTimeout);
+        RequestConfig priceConfig = requestConfig(priceReadTimeout);
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(fipeHttpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(uri.getPath().contains("/anos/") ? priceConfig : catalogConfig);
+            return context;
+        });
+
+        return builder.detectRequestFactory(false).configure(new RestTemplate(requestFactory));
+    }
+
+    @Bean
+    public CircuitBreakerRegistry fipeCircuitBreakerRegistry(
+            @Value("${fipe.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${fipe.circuit-breaker.slow-call-duration:3s}") Duration slowCallDuration,
+            @Value("${fipe.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${fipe.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${fipe.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(FipeClientConfig::isUpstreamFailure)
+                .build();
+        return CircuitBreakerRegistry.of(config);
+    }
+
+    @Bean
+    public CircuitBreaker fipeCircuitBreaker(CircuitBreakerRegistry fipeCircuitBreakerRegistry) {
+        return fipeCircuitBreakerRegistry.circuitBreaker("fipe");
+    }
+
+    @Bean
+    public MeterBinder fipeCircuitBreakerMetrics(CircuitBreakerRegistry fipeCircuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(fipeCircuitBreakerRegistry);
+    }
+
+    @Bean
+    public MeterBinder fipeCacheMetrics(FipeCatalogCache fipeCatalogCache) {
+        return fipeCatalogCache::bindTo;
+    }
+
+    @Bean
+    public MeterBinder fipeConnectionPoolMetrics(PoolingHttpClientConnectionManager fipeConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(fipeConnectionManager, "fipe");
+    }
+
+    @Bean
+    public MeterBinder fipeBulkheadMetrics(FipeApiClient fipeApiClient) {
+        return registry -> {
+            Gauge.builder("fipe.client.bulkhead.available", fipeApiClient, FipeApiClient::getAvailableCalls)
+                    .description("Chamadas simultâneas à FIPE ainda disponíveis")
+                    .register(registry);
+            Gauge.builder("fipe.client.bulkhead.max", fipeApiClient, FipeApiClient::getMaxConcurrentCalls)
+                    .description("Limite de chamadas simultâneas à FIPE")
+                    .register(registry);
+            FunctionCounter.builder("fipe.client.coalesced", fipeApiClient, FipeApiClient::getCoalescedCalls)
+                    .description("Consultas à FIPE atendidas por uma chamada já em andamento")
+                    .register(registry);
+        };
+    }
+
+    private static boolean isUpstreamFailure(Throwable e) {
+        return !(e instanceof HttpClientErrorException clientError)
+                || clientError.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private RequestConfig requestConfig(Duration responseTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .build();
+    }
+}
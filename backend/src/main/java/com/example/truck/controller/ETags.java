@@ -0,0 +1,78 @@
+package com.example.truck.controller;
+
+import com.example.truck.dto.TruckPageDTO;
+import com.example.truck.dto.TruckSummaryDTO;
+import com.example.truck.entity.TruckEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Validadores HTTP calculados sem serializar a resposta: caminhões pela
+ * dupla id/{@code version} (toda escrita incrementa a versão), páginas pelos
+ * itens, catálogos FIPE pelo mês de referência (a FIPE publica uma tabela por
+ * mês) ou, sem ele, pelo hash do conteúdo. São ETags fracas ({@code W/}):
+ * identificam a versão dos dados, não os bytes, e por isso valem tanto para a
+ * resposta comprimida quanto para a sem compressão (o Tomcat só comprime
+ * respostas com ETag fraca ou sem ETag).
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(TruckEntity truck) {
+        return weak(mix(mix(17, truck.getId()), truck.getVersion()));
+    }
+
+    static String of(TruckPageDTO page) {
+        long hash = 17;
+        for (TruckSummaryDTO item : page.getItems()) {
+            hash = mix(mix(hash, item.getId()), timestamp(item.getUpdatedDate()));
+        }
+        return weak(mix(hash, page.getNextCursor()));
+    }
+
+    static String of(Iterable<?> content) {
+        long hash = 17;
+        for (Object item : content) {
+            hash = mix(hash, item);
+        }
+        return weak(hash);
+    }
+
+    static String of(Object content) {
+        return weak(mix(17, content));
+    }
+
+    /**
+     * ETag de uma resposta do catálogo FIPE na versão {@code catalogVersion}
+     * (o mês de referência), sem percorrer o conteúdo.
+     */
+    static String ofCatalog(String catalogVersion) {
+        return "W/\"fipe-" + Long.toHexString(mix(17, catalogVersion)) + '"';
+    }
+
+    static ZonedDateTime lastModified(TruckEntity truck) {
+        return truck.getUpdatedDate() != null ? truck.getUpdatedDate().atZone(ZoneId.systemDefault()) : null;
+    }
+
+    private static long timestamp(LocalDateTime date) {
+        if (date == null) return 0;
+        return date.toLocalDate().toEpochDay() * 86_400_000_000_000L + date.toLocalTime().toNanoOfDay();
+    }
+
+    private static long mix(long hash, Object value) {
+        return mix(hash, value instanceof Long number ? number.longValue() : Objects.hashCode(value));
+    }
+
+    private static long mix(long hash, long value) {
+        return hash * 1_099_511_628_211L + value;
+    }
+
+    private static String weak(long hash) {
+        return "W/\"" + Long.toHexString(hash) + '"';
+    }
+}
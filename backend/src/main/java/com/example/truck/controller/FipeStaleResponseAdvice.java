@@ -0,0 +1,36 @@
+package com.example.truck.controller;
+
+import com.example.truck.service.fipe.FipeStaleness;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+@RestControllerAdvice
+public class FipeStaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "X-Fipe-Stale";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (FipeStaleness.isStale(RequestContextHolder.getRequestAttributes())) {
+            response.getHeaders().set(STALE_HEADER, "true");
+            response.getHeaders().set("Warning", "110 - \"Response is Stale\"");
+            // não deixa navegador/proxy guardar por horas um dado de contingência
+            response.getHeaders().setCacheControl(CacheControl.noCache());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.truck.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Respostas de escritas enviadas com {@code Idempotency-Key}, guardadas em
+ * memória (limite de tamanho e TTL). A repetição de uma requisição já
+ * concluída recebe a mesma resposta sem nova consulta à FIPE nem escrita; se
+ * a original ainda estiver em andamento, a repetição aguarda o resultado dela.
+ * Respostas 5xx não são guardadas, para que a repetição tente de novo.
+ * <p>
+ * As chaves são por cliente (usuário autenticado, {@code X-Client-Id} ou, na
+ * falta deles, o endereço de origem): a mesma chave enviada por outro cliente
+ * é outra requisição. O corpo é identificado pelo SHA-256 da sua serialização
+ * JSON canônica (propriedades e chaves de mapas em ordem alfabética).
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> responses;
+    private final Duration wait;
+    private final ObjectMapper canonicalMapper;
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    public IdempotencyStore(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                            @Value("${truck.idempotency.max-size:10000}") long maxSize,
+                            @Value("${truck.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${truck.idempotency.wait:30s}") Duration wait) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.wait = wait;
+        ObjectMapper canonical = objectMapper.copy();
+        this.canonicalMapper = canonical.setConfig(canonical.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "truck.idempotency");
+    }
+
+    /**
+     * Cliente dono das chaves da requisição: o usuário autenticado, o header
+     * {@code X-Client-Id} ou o endereço de origem.
+     */
+    public static String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) return "user:" + principal.getName();
+
+        String clientId = request.getHeader(CLIENT_HEADER);
+        if (clientId != null && !clientId.isBlank()) return "client:" + clientId.strip();
+        return "addr:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Executa {@code action} uma única vez por cliente, chave e operação;
+     * {@code request} identifica o corpo, e reutilizar a chave com outro corpo
+     * resulta em 422.
+     */
+    public ResponseEntity<?> execute(String client, String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) return action.get();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return new ResponseEntity<>(KEY_HEADER + " inválida (1 a " + MAX_KEY_LENGTH + " caracteres).",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String storeKey = client + ' ' + operation + ' ' + key;
+        Entry entry = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry previous = responses.asMap().putIfAbsent(storeKey, entry);
+        if (previous != null) return replay(previous, entry.fingerprint());
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            responses.asMap().remove(storeKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) responses.asMap().remove(storeKey, entry);
+        entry.response().complete(response);
+        return response;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = canonicalMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao identificar o corpo da requisição", e);
+        }
+    }
+
+    private ResponseEntity<?> replay(Entry previous, String fingerprint) {
+        if (!previous.fingerprint().equals(fingerprint)) {
+            return new ResponseEntity<>(KEY_HEADER + " já usada com outra requisição.", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = previous.response().get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return new ResponseEntity<>("Requisição com esta " + KEY_HEADER + " ainda em andamento.", HttpStatus.CONFLICT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>("Requisição com esta " + KEY_HEADER + " ainda em andamento.", HttpStatus.CONFLICT);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+}
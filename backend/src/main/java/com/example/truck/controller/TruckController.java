@@ -1,18 +1,52 @@
 package com.example.truck.controller;
 
+import com.example.truck.dto.FleetGroupDTO;
+import com.example.truck.dto.FleetMonthValueDTO;
+import com.example.truck.dto.PriceMoverDTO;
+import com.example.truck.dto.TruckFilterDTO;
+import com.example.truck.dto.TruckPageDTO;
+import com.example.truck.dto.TruckValuationDTO;
+import com.example.truck.dto.ValuationChangeDTO;
+import com.example.truck.entity.RevaluationRunEntity;
 import com.example.truck.entity.TruckEntity;
+import com.example.truck.service.FleetAnalyticsService;
+import com.example.truck.service.FleetGroupBy;
+import com.example.truck.service.TruckChangeBus;
+import com.example.truck.service.TruckConflictException;
+import com.example.truck.service.TruckExportFormat;
+import com.example.truck.service.TruckExportService;
+import com.example.truck.service.TruckImportService;
+import com.example.truck.service.TruckPriceHistoryService;
+import com.example.truck.service.TruckRevaluationService;
 import com.example.truck.service.TruckService;
+import com.example.truck.service.TruckValuationService;
 import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipeMirrorService;
+import com.example.truck.service.fipe.FipeStaleness;
+import com.example.truck.service.fipe.FipeUnavailableException;
 import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.dto.fipe.FipeCacheStatsDTO;
+import com.example.truck.dto.fipe.FipeMirrorStatusDTO;
 import com.example.truck.dto.fipe.FipeModelDTO;
 import com.example.truck.dto.fipe.FipeModelResponseDTO;
 import com.example.truck.dto.fipe.FipePriceResponseDTO;
 import com.example.truck.dto.fipe.FipeYearDTO;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -20,76 +54,315 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class TruckController {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TruckService truckService;
+    private final TruckImportService truckImportService;
+    private final TruckExportService truckExportService;
+    private final TruckValuationService truckValuationService;
+    private final TruckRevaluationService truckRevaluationService;
+    private final TruckPriceHistoryService truckPriceHistoryService;
     private final FipeApiClient fipeApiClient;
+    private final FipeMirrorService fipeMirrorService;
+    private final TruckChangeBus truckChangeBus;
+    private final IdempotencyStore idempotencyStore;
+    private final FleetAnalyticsService fleetAnalyticsService;
+
+    @Value("${fipe.http.max-age:1h}")
+    private Duration fipeMaxAge;
 
-    public TruckController(TruckService truckService, FipeApiClient fipeApiClient) {
+    public TruckController(TruckService truckService, TruckImportService truckImportService,
+                           TruckExportService truckExportService, TruckValuationService truckValuationService,
+                           TruckRevaluationService truckRevaluationService,
+                           TruckPriceHistoryService truckPriceHistoryService, FipeApiClient fipeApiClient,
+                           FipeMirrorService fipeMirrorService, TruckChangeBus truckChangeBus,
+                           IdempotencyStore idempotencyStore, FleetAnalyticsService fleetAnalyticsService) {
         this.truckService = truckService;
+        this.truckImportService = truckImportService;
+        this.truckExportService = truckExportService;
+        this.truckValuationService = truckValuationService;
+        this.truckRevaluationService = truckRevaluationService;
+        this.truckPriceHistoryService = truckPriceHistoryService;
         this.fipeApiClient = fipeApiClient;
+        this.fipeMirrorService = fipeMirrorService;
+        this.truckChangeBus = truckChangeBus;
+        this.idempotencyStore = idempotencyStore;
+        this.fleetAnalyticsService = fleetAnalyticsService;
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<TruckEntity> getTruckById(@PathVariable Long id) {
-        return ResponseEntity.of(truckService.getTruckById(id));
+        return truckService.getTruckById(id)
+                .map(truck -> ResponseEntity.ok()
+                        .eTag(ETags.of(truck))
+                        .lastModified(ETags.lastModified(truck))
+                        .cacheControl(REVALIDATE)
+                        .body(truck))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<List<TruckEntity>> getAllTrucks() {
-        List<TruckEntity> trucks = truckService.getAllTrucks();
-        return new ResponseEntity<>(trucks, HttpStatus.OK);
+    public ResponseEntity<?> getTrucks(@ModelAttribute TruckFilterDTO filter) {
+        try {
+            TruckPageDTO page = truckService.getTrucks(filter);
+            return ResponseEntity.ok().eTag(ETags.of(page)).cacheControl(REVALIDATE).body(page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Stream (SSE) das alterações de caminhões. O {@code EventSource} do
+     * navegador reenvia {@code Last-Event-ID} ao reconectar; outros clientes
+     * podem informar {@code since} com a última sequência recebida.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long since) {
+        return truckChangeBus.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTrucks(@RequestParam(defaultValue = "ndjson") String format) {
+        TruckExportFormat exportFormat;
+        try {
+            exportFormat = TruckExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        StreamingResponseBody body = out -> truckExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"trucks." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/fipe/brands")
-    public ResponseEntity<List<FipeBrandDTO>> getAllBrands() {
+    public ResponseEntity<List<FipeBrandDTO>> getAllBrands(@RequestParam(required = false) String q,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        if (q != null) {
+            return catalog(fipeApiClient.searchBrands(q, searchLimit(limit)));
+        }
         FipeBrandDTO[] brands = fipeApiClient.getAllBrands();
         List<FipeBrandDTO> body = (brands == null) ? List.of() : List.of(brands);
-        return new ResponseEntity<>(body, HttpStatus.OK);
+        return catalog(body);
     }
 
-    @GetMapping("/fipe/brands/{brandCode}/models")
-    public ResponseEntity<List<FipeModelDTO>> getModelsByBrand(@PathVariable String brandCode) {
+    @GetMapping("/fipe/brands/{brand}/models")
+    public ResponseEntity<List<FipeModelDTO>> getModelsByBrand(@PathVariable String brand,
+                                                               @RequestParam(required = false) String q,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        String brandCode = fipeApiClient.resolveBrandCode(brand);
+        if (brandCode == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        if (q != null) {
+            return catalog(fipeApiClient.searchModels(brandCode, q, searchLimit(limit)));
+        }
+
         FipeModelResponseDTO response = fipeApiClient.getModelsByBrand(brandCode);
         List<FipeModelDTO> models = (response != null && response.getModels() != null) ? response.getModels() : List.of();
-        return new ResponseEntity<>(models, HttpStatus.OK);
+        return catalog(models);
     }
 
-    @GetMapping("/fipe/brands/{brandCode}/models/{modelCode}/years")
-    public ResponseEntity<List<FipeYearDTO>> getYearsByModel(@PathVariable String brandCode,
-                                                             @PathVariable String modelCode) {
+    @GetMapping("/fipe/brands/{brand}/models/{model}/years")
+    public ResponseEntity<List<FipeYearDTO>> getYearsByModel(@PathVariable String brand,
+                                                             @PathVariable String model) {
+        String brandCode = fipeApiClient.resolveBrandCode(brand);
+        String modelCode = brandCode != null ? fipeApiClient.resolveModelCode(brandCode, model) : null;
+        if (modelCode == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
         List<FipeYearDTO> years = fipeApiClient.getYearsByModel(brandCode, modelCode);
-        return new ResponseEntity<>(years == null ? List.of() : years, HttpStatus.OK);
+        return catalog(years != null ? years : List.of());
     }
 
-    @GetMapping("/fipe/brands/{brandCode}/models/{modelCode}/years/{yearCode}")
-    public ResponseEntity<FipePriceResponseDTO> getPriceFromFipe(@PathVariable String brandCode,
-                                                                 @PathVariable String modelCode,
+    @GetMapping("/fipe/brands/{brand}/models/{model}/years/{yearCode}")
+    public ResponseEntity<FipePriceResponseDTO> getPriceFromFipe(@PathVariable String brand,
+                                                                 @PathVariable String model,
                                                                  @PathVariable String yearCode) {
+        String brandCode = fipeApiClient.resolveBrandCode(brand);
+        String modelCode = brandCode != null ? fipeApiClient.resolveModelCode(brandCode, model) : null;
+        if (modelCode == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
         FipePriceResponseDTO price = fipeApiClient.getPrice(brandCode, modelCode, yearCode);
-        return price != null ? new ResponseEntity<>(price, HttpStatus.OK)
-                : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        if (price == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return ResponseEntity.ok().eTag(catalogETag(price)).cacheControl(fipeCacheControl()).body(price);
+    }
+
+    @GetMapping("/fipe/search")
+    public ResponseEntity<?> searchFipe(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) return new ResponseEntity<>("Informe o termo de busca (q).", HttpStatus.BAD_REQUEST);
+        return catalog(fipeApiClient.search(q, searchLimit(limit)));
+    }
+
+    @GetMapping("/fipe/cache/stats")
+    public ResponseEntity<List<FipeCacheStatsDTO>> getFipeCacheStats() {
+        return new ResponseEntity<>(fipeApiClient.getCacheStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/fipe/mirror")
+    public ResponseEntity<FipeMirrorStatusDTO> getFipeMirrorStatus() {
+        return new ResponseEntity<>(fipeMirrorService.getStatus(), HttpStatus.OK);
+    }
+
+    @PostMapping("/fipe/mirror/refresh")
+    public ResponseEntity<?> refreshFipeMirror() {
+        try {
+            fipeMirrorService.startRefresh();
+            return new ResponseEntity<>(fipeMirrorService.getStatus(), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        }
+    }
+
+    @GetMapping("/fipe/revaluation")
+    public ResponseEntity<RevaluationRunEntity> getLatestRevaluation() {
+        return ResponseEntity.of(truckRevaluationService.getLatestRun());
+    }
+
+    @PostMapping("/fipe/revaluation")
+    public ResponseEntity<?> startRevaluation() {
+        try {
+            return new ResponseEntity<>(truckRevaluationService.start(), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        }
+    }
+
+    @GetMapping("/valuation/monthly")
+    public ResponseEntity<List<FleetMonthValueDTO>> getMonthlyFleetValue() {
+        return new ResponseEntity<>(truckPriceHistoryService.getMonthlyFleetValue(), HttpStatus.OK);
+    }
+
+    @GetMapping("/valuation/depreciation")
+    public ResponseEntity<List<ValuationChangeDTO>> getDepreciation(@RequestParam YearMonth from,
+                                                                    @RequestParam YearMonth to,
+                                                                    @RequestParam(defaultValue = "model") String groupBy) {
+        return new ResponseEntity<>(truckPriceHistoryService.getDepreciation(from, to, !"brand".equals(groupBy)),
+                HttpStatus.OK);
+    }
+
+    @GetMapping("/valuation/movers")
+    public ResponseEntity<List<PriceMoverDTO>> getTopMovers(@RequestParam YearMonth from,
+                                                            @RequestParam YearMonth to,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(truckPriceHistoryService.getTopMovers(from, to, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getFleetAnalytics(@RequestParam(defaultValue = "brand") String groupBy) {
+        try {
+            List<FleetGroupDTO> groups = fleetAnalyticsService.getGroups(FleetGroupBy.from(groupBy));
+            return new ResponseEntity<>(groups, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/valuation")
+    public ResponseEntity<TruckValuationDTO> getValuation(@PathVariable Long id) {
+        return ResponseEntity.of(truckValuationService.getValuation(id));
     }
 
     @PostMapping
-    public ResponseEntity<?> createTruck(@Valid @RequestBody TruckEntity truck) {
+    public ResponseEntity<?> createTruck(@Valid @RequestBody TruckEntity truck,
+                                         @RequestParam(defaultValue = "false") boolean async,
+                                         @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+                                         HttpServletRequest request) {
+        return idempotencyStore.execute(IdempotencyStore.client(request), idempotencyKey,
+                "POST /api/trucks?async=" + async, truck,
+                () -> create(truck, async));
+    }
+
+    private ResponseEntity<?> create(TruckEntity truck, boolean async) {
         try {
+            if (async) {
+                return new ResponseEntity<>(truckValuationService.createTruckDeferred(truck), HttpStatus.ACCEPTED);
+            }
             TruckEntity createdTruck = truckService.createTruck(truck);
             return new ResponseEntity<>(createdTruck, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (FipeUnavailableException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (Exception e) {
             return new ResponseEntity<>("Erro interno: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importTrucks(@RequestBody List<TruckEntity> trucks) {
+        try {
+            return new ResponseEntity<>(truckImportService.importTrucks(trucks), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping(value = "/batch", consumes = "text/csv")
+    public ResponseEntity<?> importTrucksCsv(@RequestBody String csv) {
+        try {
+            return new ResponseEntity<>(truckImportService.importCsv(csv), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateTruck(@PathVariable Long id, @Valid @RequestBody TruckEntity truckDetails) {
+    public ResponseEntity<?> updateTruck(@PathVariable Long id, @Valid @RequestBody TruckEntity truckDetails,
+                                         @RequestHeader(value = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey,
+                                         HttpServletRequest request) {
+        return idempotencyStore.execute(IdempotencyStore.client(request), idempotencyKey,
+                "PUT /api/trucks/" + id, truckDetails,
+                () -> update(id, truckDetails));
+    }
+
+    private ResponseEntity<?> update(Long id, TruckEntity truckDetails) {
         try {
             TruckEntity updatedTruck = truckService.updateTruck(id, truckDetails);
             return new ResponseEntity<>(updatedTruck, HttpStatus.OK);
+        } catch (TruckConflictException e) {
+            TruckEntity current = e.getCurrent();
+            return ResponseEntity.status(HttpStatus.CONFLICT).eTag(ETags.of(current)).body(current);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (FipeUnavailableException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
         }
     }
+
+    private <T> ResponseEntity<List<T>> catalog(List<T> body) {
+        return ResponseEntity.ok().eTag(catalogETag(body)).cacheControl(fipeCacheControl()).body(body);
+    }
+
+    /**
+     * ETag pelo mês de referência do catálogo; respostas de contingência
+     * (possivelmente de um mês anterior) ou sem mês conhecido usam o conteúdo.
+     */
+    private String catalogETag(Object body) {
+        String version = fipeApiClient.getCatalogVersion();
+        if (version == null || FipeStaleness.isStale(RequestContextHolder.getRequestAttributes())) {
+            return body instanceof Iterable<?> items ? ETags.of(items) : ETags.of(body);
+        }
+        return ETags.ofCatalog(version);
+    }
+
+    private CacheControl fipeCacheControl() {
+        return CacheControl.maxAge(fipeMaxAge).cachePublic();
+    }
+
+    private static int searchLimit(int limit) {
+        return Math.clamp(limit, 1, MAX_SEARCH_RESULTS);
+    }
+
+    @ExceptionHandler(FipeUnavailableException.class)
+    public ResponseEntity<String> handleFipeUnavailable(FipeUnavailableException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetGroupDTO {
+
+    private String brand;
+
+    private String model;
+
+    private Integer manufacturingYear;
+
+    private long trucks;
+
+    private long pricedTrucks;
+
+    private BigDecimal totalValue;
+
+    private BigDecimal averagePrice;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,17 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetMonthValueDTO {
+    private LocalDate referenceMonth;
+    private BigDecimal totalValue;
+    private Long trucks;
+}
@@ -0,0 +1,33 @@
+package com.example.truck.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Data
+@NoArgsConstructor
+public class PriceMoverDTO {
+    private Long truckId;
+    private String licensePlate;
+    private String brand;
+    private String model;
+    private BigDecimal priceFrom;
+    private BigDecimal priceTo;
+    private BigDecimal change;
+    private BigDecimal changePercent;
+
+    public PriceMoverDTO(Long truckId, String licensePlate, String brand, String model,
+                         BigDecimal priceFrom, BigDecimal priceTo) {
+        this.truckId = truckId;
+        this.licensePlate = licensePlate;
+        this.brand = brand;
+        this.model = model;
+        this.priceFrom = priceFrom;
+        this.priceTo = priceTo;
+        this.change = priceTo.subtract(priceFrom);
+        this.changePercent = priceFrom.signum() == 0 ? null
+                : change.multiply(BigDecimal.valueOf(100)).divide(priceFrom, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckChangeDTO {
+
+    private long sequence;
+
+    private TruckChangeType type;
+
+    private List<Long> truckIds;
+
+    private Instant occurredAt;
+}
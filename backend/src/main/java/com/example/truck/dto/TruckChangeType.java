@@ -0,0 +1,7 @@
+package com.example.truck.dto;
+
+public enum TruckChangeType {
+    CREATED,
+    UPDATED,
+    PRICE_CHANGED
+}
@@ -0,0 +1,30 @@
+package com.example.truck.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição da última linha devolvida em uma página, usada como chave do keyset,
+ * e a ordenação em que ela foi gerada (a chave só vale para essa ordenação).
+ */
+public record TruckCursor(String sort, long id, LocalDateTime updatedDate) {
+
+    public String encode() {
+        String raw = sort + "|" + id + "|" + (updatedDate != null ? updatedDate : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TruckCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || parts[0].isEmpty()) throw new IllegalArgumentException();
+            return new TruckCursor(parts[0], Long.parseLong(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.truck.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TruckFilterDTO {
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_UPDATED_DATE = "updatedDate";
+
+    private String brand;
+
+    private String model;
+
+    private Integer minYear;
+
+    private Integer maxYear;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private String sort = SORT_ID;
+
+    private String cursor;
+
+    private Integer limit;
+
+    public boolean isSortByUpdatedDate() {
+        return SORT_UPDATED_DATE.equals(sort);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckFipeKeyDTO {
+    private Long id;
+    private String brand;
+    private String model;
+    private Integer manufacturingYear;
+}
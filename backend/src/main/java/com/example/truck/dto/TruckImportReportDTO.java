@@ -0,0 +1,21 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckImportReportDTO {
+
+    private int total;
+
+    private int created;
+
+    private int failed;
+
+    private List<TruckImportResultDTO> rows;
+}
@@ -0,0 +1,21 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckImportResultDTO {
+
+    private int row;
+
+    private String licensePlate;
+
+    private TruckImportStatus status;
+
+    private Long id;
+
+    private String message;
+}
@@ -0,0 +1,9 @@
+package com.example.truck.dto;
+
+public enum TruckImportStatus {
+    CREATED,
+    INVALID,
+    DUPLICATE,
+    FIPE_NOT_FOUND,
+    FAILED
+}
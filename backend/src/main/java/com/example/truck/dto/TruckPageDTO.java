@@ -0,0 +1,17 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckPageDTO {
+
+    private List<TruckSummaryDTO> items;
+
+    private String nextCursor;
+}
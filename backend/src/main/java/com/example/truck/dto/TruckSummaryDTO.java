@@ -0,0 +1,28 @@
+package com.example.truck.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckSummaryDTO {
+
+    private Long id;
+
+    private String licensePlate;
+
+    private String brand;
+
+    private String model;
+
+    private Integer manufacturingYear;
+
+    private BigDecimal fipePrice;
+
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,22 @@
+package com.example.truck.dto;
+
+import com.example.truck.entity.ValuationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TruckValuationDTO {
+
+    private Long id;
+
+    private ValuationStatus status;
+
+    private BigDecimal fipePrice;
+
+    private String message;
+}
@@ -0,0 +1,38 @@
+package com.example.truck.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Variação de valor de um grupo (marca ou marca/modelo) entre dois meses,
+ * considerando só os caminhões avaliados nos dois meses.
+ */
+@Data
+@NoArgsConstructor
+public class ValuationChangeDTO {
+    private String brand;
+    private String model;
+    private Long trucks;
+    private BigDecimal valueFrom;
+    private BigDecimal valueTo;
+    private BigDecimal change;
+    private BigDecimal changePercent;
+
+    public ValuationChangeDTO(String brand, String model, Long trucks, BigDecimal valueFrom, BigDecimal valueTo) {
+        this.brand = brand;
+        this.model = model;
+        this.trucks = trucks;
+        this.valueFrom = valueFrom;
+        this.valueTo = valueTo;
+        this.change = valueTo.subtract(valueFrom);
+        this.changePercent = valueFrom.signum() == 0 ? null
+                : change.multiply(BigDecimal.valueOf(100)).divide(valueFrom, 2, RoundingMode.HALF_UP);
+    }
+
+    public ValuationChangeDTO(String brand, Long trucks, BigDecimal valueFrom, BigDecimal valueTo) {
+        this(brand, null, trucks, valueFrom, valueTo);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.truck.dto.fipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FipeMirrorStatusDTO {
+    private boolean loaded;
+    private boolean offline;
+    private boolean refreshing;
+    private String referenceMonth;
+    private Instant createdDate;
+    private int brands;
+    private int models;
+    private int years;
+    private int prices;
+}
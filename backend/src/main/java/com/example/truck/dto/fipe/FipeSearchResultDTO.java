@@ -0,0 +1,16 @@
+package com.example.truck.dto.fipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FipeSearchResultDTO {
+    private String brandCode;
+    private String brandName;
+    private String modelCode;
+    private String modelName;
+    private int score;
+}
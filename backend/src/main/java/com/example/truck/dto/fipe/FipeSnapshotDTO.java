@@ -0,0 +1,21 @@
+package com.example.truck.dto.fipe;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cópia local do catálogo FIPE de caminhões. Chaves: código da marca
+ * ({@code models}), "marca/modelo" ({@code years}) e "marca/modelo/ano" ({@code prices}).
+ */
+@Data
+public class FipeSnapshotDTO {
+    private String referenceMonth;
+    private Instant createdDate;
+    private List<FipeBrandDTO> brands;
+    private Map<String, FipeModelResponseDTO> models;
+    private Map<String, List<FipeYearDTO>> years;
+    private Map<String, FipePriceResponseDTO> prices;
+}
@@ -0,0 +1,56 @@
+package com.example.truck.entity;
+
+/**
+ * Normalização e validação de placas (antiga ABC1234 e Mercosul ABC1D23)
+ * por varredura de caracteres, sem regex. Quando a placa já está
+ * normalizada, a própria string é devolvida.
+ */
+public final class LicensePlate {
+
+    public static final int LENGTH = 7;
+
+    private LicensePlate() {
+    }
+
+    public static String normalize(String licensePlate) {
+        if (licensePlate == null) return null;
+
+        int length = licensePlate.length();
+        int i = 0;
+        while (i < length && isUpperOrDigit(licensePlate.charAt(i))) i++;
+        if (i == length) return licensePlate;
+
+        StringBuilder normalized = new StringBuilder(LENGTH);
+        normalized.append(licensePlate, 0, i);
+        for (; i < length; i++) {
+            char c = licensePlate.charAt(i);
+            if (isUpperOrDigit(c)) normalized.append(c);
+            else if (c >= 'a' && c <= 'z') normalized.append((char) (c - ('a' - 'A')));
+        }
+        return normalized.toString();
+    }
+
+    public static boolean isValid(String licensePlate) {
+        if (licensePlate == null || licensePlate.length() != LENGTH) return false;
+
+        return isUpper(licensePlate.charAt(0))
+                && isUpper(licensePlate.charAt(1))
+                && isUpper(licensePlate.charAt(2))
+                && isDigit(licensePlate.charAt(3))
+                && isUpperOrDigit(licensePlate.charAt(4))
+                && isDigit(licensePlate.charAt(5))
+                && isDigit(licensePlate.charAt(6));
+    }
+
+    private static boolean isUpperOrDigit(char c) {
+        return isUpper(c) || isDigit(c);
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.truck.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execução da reavaliação FIPE da frota. {@code lastTruckId} é o checkpoint:
+ * o último id já processado, a partir do qual a execução é retomada.
+ * {@code referenceMonth} é o mês da tabela FIPE usada pela execução; uma
+ * execução pausada de outro mês não é retomada.
+ * {@code claimedBy}/{@code leaseUntil} indicam a instância que a executa e
+ * até quando; são gravados só pelas consultas de reserva do repositório.
+ */
+@Entity
+@Table(name = "fipe_revaluation_run")
+@Data
+@NoArgsConstructor
+public class RevaluationRunEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private RevaluationStatus status = RevaluationStatus.RUNNING;
+
+    @Column(name = "last_truck_id", nullable = false)
+    private long lastTruckId;
+
+    @Column(name = "processed", nullable = false)
+    private int processed;
+
+    @Column(name = "updated", nullable = false)
+    private int updated;
+
+    @Column(name = "failed", nullable = false)
+    private int failed;
+
+    @Column(name = "reference_month", length = 40)
+    private String referenceMonth;
+
+    @CreationTimestamp
+    @Column(name = "started_date", nullable = false, updatable = false)
+    private LocalDateTime startedDate;
+
+    @UpdateTimestamp
+    @Column(name = "updated_date", nullable = false)
+    private LocalDateTime updatedDate;
+
+    @Column(name = "finished_date")
+    private LocalDateTime finishedDate;
+
+    @Column(name = "claimed_by", length = 100, insertable = false, updatable = false)
+    private String claimedBy;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    private LocalDateTime leaseUntil;
+}
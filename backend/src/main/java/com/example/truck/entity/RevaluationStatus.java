@@ -0,0 +1,9 @@
+package com.example.truck.entity;
+
+public enum RevaluationStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    /** Encerrada sem terminar porque o mês de referência da FIPE mudou. */
+    SUPERSEDED
+}
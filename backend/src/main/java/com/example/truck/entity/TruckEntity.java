@@ -1,45 +1,51 @@
 package com.example.truck.entity;
 
+import com.example.truck.validation.ValidLicensePlate;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Locale;
 
 @Entity
 @Table(name = "truck")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "truck")
+@NaturalIdCache(region = "truck-plate")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class TruckEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "truck_id_seq")
+    @SequenceGenerator(name = "truck_id_seq", sequenceName = "truck_id_seq", allocationSize = 50)
     private Long id;
 
 
+    @NaturalId(mutable = true)
     @Column(name = "license_plate", nullable = false, unique = true, length = 7)
     @NotBlank(message = "Placa é obrigatória")
     @Size(min = 7, max = 7, message = "A placa deve conter exatamente 7 caracteres")
-    @Pattern(
-            regexp = "^(?:[A-Z]{3}\\d{4}|[A-Z]{3}\\d[A-Z]\\d{2})$",
-            message = "Placa inválida (use ABC1234 ou ABC1D23)"
-    )
+    @ValidLicensePlate
     private String licensePlate;
 
     @PrePersist @PreUpdate
     private void normalizePlate() {
-        if (licensePlate != null) {
-            licensePlate = licensePlate.replaceAll("[^A-Za-z0-9]", "")
-                    .toUpperCase(Locale.ROOT)
-                    .trim();
-        }
+        licensePlate = normalizeLicensePlate(licensePlate);
+    }
+
+    public static String normalizeLicensePlate(String licensePlate) {
+        return LicensePlate.normalize(licensePlate);
     }
 
     @Column(name = "brand", nullable = false, length = 50)
@@ -61,6 +67,13 @@ public class TruckEntity {
     @PositiveOrZero(message = "Preço deve ser igual ou maior que 0.0")
     private BigDecimal fipePrice;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "valuation_status", nullable = false, length = 20)
+    private ValuationStatus valuationStatus = ValuationStatus.COMPLETED;
+
+    @Column(name = "valuation_message")
+    private String valuationMessage;
+
     @CreationTimestamp
     @Column(name = "created_date", nullable = false)
     private LocalDateTime createdDate;
@@ -69,6 +82,10 @@ public class TruckEntity {
     @Column(name = "updated_date", nullable = false)
     private LocalDateTime updatedDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public TruckEntity(String licensePlate, String brand, String model, Integer manufacturingYear) {
         this.licensePlate = licensePlate;
         this.brand = brand;
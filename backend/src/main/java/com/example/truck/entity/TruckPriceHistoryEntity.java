@@ -0,0 +1,38 @@
+package com.example.truck.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Preço FIPE de um caminhão em um mês de referência (sempre o dia 1).
+ * Há no máximo uma linha por caminhão e mês.
+ */
+@Entity
+@Table(name = "truck_price_history")
+@Data
+@NoArgsConstructor
+public class TruckPriceHistoryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "truck_id", nullable = false)
+    private Long truckId;
+
+    @Column(name = "reference_month", nullable = false)
+    private LocalDate referenceMonth;
+
+    @Column(name = "fipe_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal fipePrice;
+
+    @CreationTimestamp
+    @Column(name = "recorded_date", nullable = false)
+    private LocalDateTime recordedDate;
+}
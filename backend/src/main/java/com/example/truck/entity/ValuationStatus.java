@@ -0,0 +1,7 @@
+package com.example.truck.entity;
+
+public enum ValuationStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
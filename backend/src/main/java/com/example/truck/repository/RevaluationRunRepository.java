@@ -0,0 +1,48 @@
+package com.example.truck.repository;
+
+import com.example.truck.entity.RevaluationRunEntity;
+import com.example.truck.entity.RevaluationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface RevaluationRunRepository extends JpaRepository<RevaluationRunEntity, Long> {
+
+    Optional<RevaluationRunEntity> findFirstByStatusInOrderByIdDesc(Collection<RevaluationStatus> statuses);
+
+    Optional<RevaluationRunEntity> findFirstByOrderByIdDesc();
+
+    /**
+     * Reserva (ou renova) a execução para {@code owner} até {@code until}, se
+     * ela está em andamento e livre, já é de {@code owner} ou teve a reserva
+     * expirada. Retorna 1 se a reserva foi obtida.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update RevaluationRunEntity r
+               set r.claimedBy = :owner, r.leaseUntil = :until
+             where r.id = :id
+               and r.status = com.example.truck.entity.RevaluationStatus.RUNNING
+               and (r.claimedBy is null or r.claimedBy = :owner or r.leaseUntil < :now)
+            """)
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update RevaluationRunEntity r
+               set r.claimedBy = null, r.leaseUntil = null
+             where r.id = :id and r.claimedBy = :owner
+            """)
+    int release(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -0,0 +1,83 @@
+package com.example.truck.repository;
+
+import com.example.truck.dto.FleetMonthValueDTO;
+import com.example.truck.dto.PriceMoverDTO;
+import com.example.truck.dto.ValuationChangeDTO;
+import com.example.truck.entity.TruckPriceHistoryEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TruckPriceHistoryRepository extends JpaRepository<TruckPriceHistoryEntity, Long> {
+
+    /**
+     * Registra o preço atual dos caminhões no mês informado; um novo preço no
+     * mesmo mês substitui o anterior. O query space restrito evita que o
+     * insert nativo invalide o cache de segundo nível de {@code truck}.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "truck_price_history"))
+    @Query(value = """
+            insert into truck_price_history (truck_id, reference_month, fipe_price)
+            select t.id, :referenceMonth, t.fipe_price
+              from truck t
+             where t.id in (:ids) and t.fipe_price is not null
+            on conflict (truck_id, reference_month) do update
+               set fipe_price = excluded.fipe_price, recorded_date = current_timestamp
+             where truck_price_history.fipe_price <> excluded.fipe_price
+            """, nativeQuery = true)
+    int recordCurrentPrices(@Param("ids") Collection<Long> ids, @Param("referenceMonth") LocalDate referenceMonth);
+
+    @Query("""
+            select new com.example.truck.dto.FleetMonthValueDTO(h.referenceMonth, sum(h.fipePrice), count(h))
+              from TruckPriceHistoryEntity h
+             group by h.referenceMonth
+             order by h.referenceMonth
+            """)
+    List<FleetMonthValueDTO> findMonthlyFleetValue();
+
+    @Query("""
+            select new com.example.truck.dto.ValuationChangeDTO(t.brand, t.model, count(t), sum(a.fipePrice), sum(b.fipePrice))
+              from TruckPriceHistoryEntity a
+              join TruckPriceHistoryEntity b on b.truckId = a.truckId and b.referenceMonth = :to
+              join TruckEntity t on t.id = a.truckId
+             where a.referenceMonth = :from
+             group by t.brand, t.model
+             order by sum(b.fipePrice) - sum(a.fipePrice)
+            """)
+    List<ValuationChangeDTO> findChangeByBrandAndModel(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select new com.example.truck.dto.ValuationChangeDTO(t.brand, count(t), sum(a.fipePrice), sum(b.fipePrice))
+              from TruckPriceHistoryEntity a
+              join TruckPriceHistoryEntity b on b.truckId = a.truckId and b.referenceMonth = :to
+              join TruckEntity t on t.id = a.truckId
+             where a.referenceMonth = :from
+             group by t.brand
+             order by sum(b.fipePrice) - sum(a.fipePrice)
+            """)
+    List<ValuationChangeDTO> findChangeByBrand(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select new com.example.truck.dto.PriceMoverDTO(t.id, t.licensePlate, t.brand, t.model, a.fipePrice, b.fipePrice)
+              from TruckPriceHistoryEntity a
+              join TruckPriceHistoryEntity b on b.truckId = a.truckId and b.referenceMonth = :to
+              join TruckEntity t on t.id = a.truckId
+             where a.referenceMonth = :from and b.fipePrice <> a.fipePrice
+             order by abs(b.fipePrice - a.fipePrice) desc, t.id
+            """)
+    List<PriceMoverDTO> findTopMovers(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+}
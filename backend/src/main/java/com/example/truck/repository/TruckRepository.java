@@ -1,11 +1,55 @@
 package com.example.truck.repository;
 
+import com.example.truck.dto.TruckFipeKeyDTO;
+import com.example.truck.dto.TruckSummaryDTO;
 import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
-public interface TruckRepository extends JpaRepository<TruckEntity, Long> {
+public interface TruckRepository extends JpaRepository<TruckEntity, Long>, TruckRepositoryCustom {
+
+    @Query("select t.licensePlate from TruckEntity t where t.licensePlate in :licensePlates")
+    Set<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+    @Query("select t from TruckEntity t order by t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<TruckEntity> streamAll();
+
+    @Query("""
+            select new com.example.truck.dto.TruckSummaryDTO(t.id, t.licensePlate, t.brand, t.model,
+                   t.manufacturingYear, t.fipePrice, t.updatedDate)
+              from TruckEntity t
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<TruckSummaryDTO> streamSummaries();
+
+    List<TruckEntity> findByValuationStatus(ValuationStatus valuationStatus);
 
-    boolean existsByLicensePlate(String licensePlate);
+    @Query("""
+            select new com.example.truck.dto.TruckFipeKeyDTO(t.id, t.brand, t.model, t.manufacturingYear)
+              from TruckEntity t
+             where t.id > :afterId and t.valuationStatus <> com.example.truck.entity.ValuationStatus.PENDING
+             order by t.id
+            """)
+    List<TruckFipeKeyDTO> findFipeKeysAfter(@Param("afterId") long afterId, Pageable pageable);
 }
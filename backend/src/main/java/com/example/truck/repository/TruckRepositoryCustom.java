@@ -0,0 +1,46 @@
+package com.example.truck.repository;
+
+import com.example.truck.dto.TruckCursor;
+import com.example.truck.dto.TruckFilterDTO;
+import com.example.truck.dto.TruckSummaryDTO;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TruckRepositoryCustom {
+
+    List<TruckSummaryDTO> findPage(TruckFilterDTO filter, TruckCursor after, int limit);
+
+    /**
+     * Verdadeiro se a placa normalizada está no cache de natural id (da
+     * sessão ou de segundo nível). Não consulta o banco: {@code false} não
+     * garante que a placa seja nova.
+     */
+    boolean isCachedLicensePlate(String licensePlate);
+
+    /**
+     * Insere o caminhão em uma única ida ao banco ({@code ON CONFLICT DO NOTHING}
+     * sobre a placa), preenchendo id e datas. Retorna {@code false} quando a
+     * placa já está cadastrada.
+     */
+    boolean insertIfAbsent(TruckEntity truck);
+
+    /**
+     * Aplica o preço FIPE aos caminhões de {@code ids} que não estão pendentes
+     * e cujo preço mudou, incrementando a versão. Só os caminhões alterados
+     * saem do cache de segundo nível. Retorna quantos foram alterados.
+     */
+    int updateFipePrice(Collection<Long> ids, BigDecimal fipePrice, LocalDateTime now);
+
+    /**
+     * Grava o resultado da avaliação se o caminhão ainda está em
+     * {@code expectedStatus}, incrementando a versão e tirando só ele do cache
+     * de segundo nível. Retorna 1 se foi alterado.
+     */
+    int updateValuation(Long id, ValuationStatus expectedStatus, ValuationStatus status, BigDecimal fipePrice,
+                        String message, LocalDateTime now);
+}
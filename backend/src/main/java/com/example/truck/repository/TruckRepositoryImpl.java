@@ -0,0 +1,217 @@
+package com.example.truck.repository;
+
+import com.example.truck.dto.TruckCursor;
+import com.example.truck.dto.TruckFilterDTO;
+import com.example.truck.dto.TruckSummaryDTO;
+import com.example.truck.entity.LicensePlate;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+public class TruckRepositoryImpl implements TruckRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT = """
+            insert into truck (id, license_plate, brand, model, manufacturing_year, fipe_price,
+                               valuation_status, valuation_message, created_date, updated_date)
+            values (:id, :licensePlate, :brand, :model, :manufacturingYear, :fipePrice,
+                    :valuationStatus, :valuationMessage, :now, :now)
+            on conflict (license_plate) do nothing
+            returning id
+            """;
+
+    // SQL nativo com RETURNING lido por getResultList: um UPDATE em JPQL (ou executeUpdate) invalida a
+    // região inteira de caminhões no cache de segundo nível; aqui só os ids devolvidos são removidos
+    private static final String UPDATE_FIPE_PRICE = """
+            update truck
+               set fipe_price = :fipePrice, valuation_status = 'COMPLETED', valuation_message = null,
+                   updated_date = :now, version = version + 1
+             where id in (:ids)
+               and valuation_status <> 'PENDING'
+               and (fipe_price is null or fipe_price <> :fipePrice)
+            returning id
+            """;
+
+    private static final String UPDATE_VALUATION = """
+            update truck
+               set fipe_price = :fipePrice, valuation_status = :status, valuation_message = :message,
+                   updated_date = :now, version = version + 1
+             where id = :id and valuation_status = :expectedStatus
+            returning id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isCachedLicensePlate(String licensePlate) {
+        String normalized = LicensePlate.normalize(licensePlate);
+        if (normalized == null || normalized.isEmpty()) return false;
+
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(TruckEntity.class);
+        return session.getPersistenceContextInternal().getNaturalIdResolutions()
+                .findCachedIdByNaturalId(normalized, persister) != null;
+    }
+
+    @Override
+    @Transactional
+    public boolean insertIfAbsent(TruckEntity truck) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Long id = nextId(session, truck);
+        String licensePlate = LicensePlate.normalize(truck.getLicensePlate());
+        LocalDateTime now = LocalDateTime.now();
+
+        // getResultList (e não executeUpdate) para ler o RETURNING sem invalidar o cache de segundo nível
+        List<?> inserted = entityManager.createNativeQuery(INSERT_IF_ABSENT)
+                .unwrap(NativeQuery.class)
+                .setParameter("id", id)
+                .setParameter("licensePlate", licensePlate)
+                .setParameter("brand", truck.getBrand())
+                .setParameter("model", truck.getModel())
+                .setParameter("manufacturingYear", truck.getManufacturingYear())
+                .setParameter("fipePrice", truck.getFipePrice(), StandardBasicTypes.BIG_DECIMAL)
+                .setParameter("valuationStatus", truck.getValuationStatus().name())
+                .setParameter("valuationMessage", truck.getValuationMessage(), StandardBasicTypes.STRING)
+                .setParameter("now", now)
+                .getResultList();
+        if (inserted.isEmpty()) return false;
+
+        truck.setId(id);
+        truck.setLicensePlate(licensePlate);
+        truck.setCreatedDate(now);
+        truck.setUpdatedDate(now);
+        truck.setVersion(0L);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int updateFipePrice(Collection<Long> ids, BigDecimal fipePrice, LocalDateTime now) {
+        if (ids.isEmpty()) return 0;
+
+        List<?> updated = entityManager.createNativeQuery(UPDATE_FIPE_PRICE)
+                .setParameter("ids", ids)
+                .setParameter("fipePrice", fipePrice)
+                .setParameter("now", now)
+                .getResultList();
+        evict(updated);
+        return updated.size();
+    }
+
+    @Override
+    @Transactional
+    public int updateValuation(Long id, ValuationStatus expectedStatus, ValuationStatus status, BigDecimal fipePrice,
+                               String message, LocalDateTime now) {
+        List<?> updated = entityManager.createNativeQuery(UPDATE_VALUATION)
+                .unwrap(NativeQuery.class)
+                .setParameter("id", id)
+                .setParameter("expectedStatus", expectedStatus.name())
+                .setParameter("status", status.name())
+                .setParameter("fipePrice", fipePrice, StandardBasicTypes.BIG_DECIMAL)
+                .setParameter("message", message, StandardBasicTypes.STRING)
+                .setParameter("now", now)
+                .getResultList();
+        evict(updated);
+        return updated.size();
+    }
+
+    /**
+     * Tira os caminhões alterados do cache de segundo nível agora e de novo
+     * depois do commit, já que uma leitura concorrente pode ter recolocado o
+     * estado anterior antes dele.
+     */
+    private void evict(List<?> ids) {
+        if (ids.isEmpty()) return;
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> truckIds = ids.stream().map(id -> ((Number) id).longValue()).toList();
+        truckIds.forEach(id -> cache.evict(TruckEntity.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    truckIds.forEach(id -> cache.evict(TruckEntity.class, id));
+                }
+            });
+        }
+    }
+
+    /**
+     * Reaproveita o gerador da entidade (sequence com pooled-lo), para que o
+     * insert nativo e os inserts do Hibernate consumam o mesmo bloco de ids.
+     */
+    private static Long nextId(SharedSessionContractImplementor session, TruckEntity truck) {
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(TruckEntity.class);
+        return (Long) ((BeforeExecutionGenerator) persister.getGenerator()).generate(session, truck, null, EventType.INSERT);
+    }
+
+    @Override
+    public List<TruckSummaryDTO> findPage(TruckFilterDTO filter, TruckCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TruckSummaryDTO> query = cb.createQuery(TruckSummaryDTO.class);
+        Root<TruckEntity> truck = query.from(TruckEntity.class);
+
+        Path<Long> id = truck.get("id");
+        Path<LocalDateTime> updatedDate = truck.get("updatedDate");
+        Path<Integer> year = truck.get("manufacturingYear");
+        Path<BigDecimal> price = truck.get("fipePrice");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getBrand() != null && !filter.getBrand().isBlank()) {
+            predicates.add(cb.equal(cb.lower(truck.<String>get("brand")), filter.getBrand().trim().toLowerCase(Locale.ROOT)));
+        }
+        if (filter.getModel() != null && !filter.getModel().isBlank()) {
+            predicates.add(cb.equal(cb.lower(truck.<String>get("model")), filter.getModel().trim().toLowerCase(Locale.ROOT)));
+        }
+        if (filter.getMinYear() != null) predicates.add(cb.greaterThanOrEqualTo(year, filter.getMinYear()));
+        if (filter.getMaxYear() != null) predicates.add(cb.lessThanOrEqualTo(year, filter.getMaxYear()));
+        if (filter.getMinPrice() != null) predicates.add(cb.greaterThanOrEqualTo(price, filter.getMinPrice()));
+        if (filter.getMaxPrice() != null) predicates.add(cb.lessThanOrEqualTo(price, filter.getMaxPrice()));
+
+        if (filter.isSortByUpdatedDate()) {
+            if (after != null && after.updatedDate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(updatedDate, after.updatedDate()));
+                predicates.add(cb.or(
+                        cb.lessThan(updatedDate, after.updatedDate()),
+                        cb.and(cb.equal(updatedDate, after.updatedDate()), cb.lessThan(id, after.id()))
+                ));
+            }
+            query.orderBy(cb.desc(updatedDate), cb.desc(id));
+        } else {
+            if (after != null) predicates.add(cb.greaterThan(id, after.id()));
+            query.orderBy(cb.asc(id));
+        }
+
+        query.select(cb.construct(TruckSummaryDTO.class, id, truck.get("licensePlate"), truck.get("brand"),
+                        truck.get("model"), year, price, updatedDate))
+                .where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
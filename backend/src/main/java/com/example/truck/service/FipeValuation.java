@@ -0,0 +1,11 @@
+package com.example.truck.service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Preço FIPE resolvido e o mês de referência ({@code MesReferencia}) da
+ * tabela de onde ele veio.
+ */
+public record FipeValuation(BigDecimal price, YearMonth referenceMonth) {
+}
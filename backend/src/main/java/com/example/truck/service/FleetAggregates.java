@@ -0,0 +1,161 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.FleetGroupDTO;
+import com.example.truck.service.fipe.FipeNameIndex;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agregados da frota por marca, marca/modelo e ano, mantidos em memória.
+ * Cada caminhão guarda só as chaves dos seus grupos e o preço em centavos,
+ * o que permite desfazer sua contribuição quando ele muda. As alterações de
+ * um grupo passam pelo {@code compute} do mapa (o que permite removê-lo ao
+ * ficar vazio sem perder uma inclusão concorrente), e a leitura não bloqueia;
+ * mínimo e máximo vêm de um multiconjunto ordenado de preços por grupo, que
+ * suporta remoção.
+ */
+final class FleetAggregates {
+
+    // a varredura não lê a versão; qualquer alteração posterior a substitui
+    private static final long SCANNED = -1;
+
+    private final Map<Long, Contribution> trucks = new ConcurrentHashMap<>();
+    private final Map<String, Group> byBrand = new ConcurrentHashMap<>();
+    private final Map<String, Group> byModel = new ConcurrentHashMap<>();
+    private final Map<Integer, Group> byYear = new ConcurrentHashMap<>();
+
+    private record Contribution(long version, String brand, String model, Integer year,
+                                String brandKey, String modelKey, Long priceCents) {
+    }
+
+    private static final class Group {
+
+        private final String brand;
+        private final String model;
+        private final Integer year;
+        private final LongAdder trucks = new LongAdder();
+        private final LongAdder pricedTrucks = new LongAdder();
+        private final LongAdder valueCents = new LongAdder();
+        // preço em centavos -> quantidade de caminhões com esse preço
+        private final ConcurrentSkipListMap<Long, Long> prices = new ConcurrentSkipListMap<>();
+
+        private Group(String brand, String model, Integer year) {
+            this.brand = brand;
+            this.model = model;
+            this.year = year;
+        }
+
+        void apply(Long priceCents, int sign) {
+            trucks.add(sign);
+            if (priceCents == null) return;
+
+            pricedTrucks.add(sign);
+            valueCents.add(sign * priceCents);
+            if (sign > 0) {
+                prices.merge(priceCents, 1L, Long::sum);
+            } else {
+                prices.computeIfPresent(priceCents, (price, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        FleetGroupDTO toDto() {
+            long priced = pricedTrucks.sum();
+            long value = valueCents.sum();
+            Map.Entry<Long, Long> min = prices.firstEntry();
+            Map.Entry<Long, Long> max = prices.lastEntry();
+            return new FleetGroupDTO(brand, model, year, trucks.sum(), priced, money(value),
+                    priced > 0 ? money(value).divide(BigDecimal.valueOf(priced), 2, RoundingMode.HALF_UP) : null,
+                    min != null ? money(min.getKey()) : null,
+                    max != null ? money(max.getKey()) : null);
+        }
+    }
+
+    /**
+     * Registra o estado do caminhão na versão informada, desfazendo o anterior;
+     * um estado mais antigo que o registrado (eventos fora de ordem) é ignorado.
+     */
+    void put(Long id, long version, String brand, String model, Integer year, BigDecimal fipePrice) {
+        Contribution contribution = contribution(version, brand, model, year, fipePrice);
+        trucks.compute(id, (key, previous) -> {
+            if (previous != null && previous.version() > version) return previous;
+            if (previous != null) apply(previous, -1);
+            apply(contribution, 1);
+            return contribution;
+        });
+    }
+
+    /**
+     * Como {@link #put}, mas não sobrescreve um estado já registrado (a
+     * varredura inicial é mais antiga que as alterações aplicadas durante ela).
+     */
+    void putIfAbsent(Long id, String brand, String model, Integer year, BigDecimal fipePrice) {
+        Contribution contribution = contribution(SCANNED, brand, model, year, fipePrice);
+        trucks.computeIfAbsent(id, key -> {
+            apply(contribution, 1);
+            return contribution;
+        });
+    }
+
+    List<FleetGroupDTO> groups(FleetGroupBy groupBy) {
+        Map<?, Group> groups = switch (groupBy) {
+            case BRAND -> byBrand;
+            case MODEL -> byModel;
+            case YEAR -> byYear;
+        };
+        Comparator<FleetGroupDTO> order = groupBy == FleetGroupBy.YEAR
+                ? Comparator.comparing(FleetGroupDTO::getManufacturingYear)
+                : Comparator.comparing(FleetGroupDTO::getTotalValue).reversed()
+                        .thenComparing(FleetGroupDTO::getBrand)
+                        .thenComparing(g -> g.getModel() != null ? g.getModel() : "");
+        return groups.values().stream()
+                .map(Group::toDto)
+                .sorted(order)
+                .toList();
+    }
+
+    int size() {
+        return trucks.size();
+    }
+
+    private Contribution contribution(long version, String brand, String model, Integer year, BigDecimal fipePrice) {
+        String brandKey = FipeNameIndex.normalize(brand);
+        String modelKey = brandKey + '|' + FipeNameIndex.normalize(model);
+        return new Contribution(version, brand, model, year, brandKey, modelKey,
+                fipePrice != null ? fipePrice.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : null);
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        apply(byBrand, contribution.brandKey(), () -> new Group(contribution.brand(), null, null), contribution, sign);
+        apply(byModel, contribution.modelKey(), () -> new Group(contribution.brand(), contribution.model(), null),
+                contribution, sign);
+        apply(byYear, contribution.year(), () -> new Group(null, null, contribution.year()), contribution, sign);
+    }
+
+    /**
+     * Soma ou subtrai a contribuição no grupo da chave, criando-o na primeira
+     * inclusão e removendo-o quando o último caminhão sai.
+     */
+    private static <K> void apply(Map<K, Group> groups, K key, Supplier<Group> newGroup,
+                                  Contribution contribution, int sign) {
+        groups.compute(key, (k, group) -> {
+            if (group == null) {
+                if (sign < 0) return null;
+                group = newGroup.get();
+            }
+            group.apply(contribution.priceCents(), sign);
+            return group.trucks.sum() > 0 ? group : null;
+        });
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
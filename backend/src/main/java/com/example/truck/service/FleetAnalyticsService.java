@@ -0,0 +1,128 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.FleetGroupDTO;
+import com.example.truck.dto.TruckSummaryDTO;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.repository.TruckRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Totais da frota por marca, modelo e ano servidos de agregados em memória,
+ * sem varrer a tabela a cada consulta. Os agregados são montados por uma
+ * varredura na subida e mantidos a cada {@link TruckChangedEvent}, com o
+ * estado que o evento já traz (sem nova ida ao banco na escrita); só as
+ * atualizações em massa, que publicam ids, são recarregadas, fora da thread
+ * de quem publicou. A varredura se repete diariamente para corrigir qualquer
+ * divergência (por exemplo, escritas feitas por outra instância).
+ */
+@Service
+public class FleetAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetAnalyticsService.class);
+
+    private final TruckRepository truckRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor eventExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile FleetAggregates current;
+    // agregados em construção; recebem as alterações ocorridas durante a varredura
+    private volatile FleetAggregates building;
+
+    public FleetAnalyticsService(TruckRepository truckRepository, TransactionTemplate transactionTemplate,
+                                 @Qualifier("truckEventExecutor") Executor eventExecutor) {
+        this.truckRepository = truckRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventExecutor = eventExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread.ofVirtual().name("fleet-analytics").start(this::rebuild);
+    }
+
+    @Scheduled(cron = "${truck.analytics.rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+
+        long start = System.nanoTime();
+        FleetAggregates aggregates = new FleetAggregates();
+        building = aggregates;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TruckSummaryDTO> trucks = truckRepository.streamSummaries()) {
+                    trucks.forEach(t -> aggregates.putIfAbsent(t.getId(), t.getBrand(), t.getModel(),
+                            t.getManufacturingYear(), t.getFipePrice()));
+                }
+            });
+            current = aggregates;
+            log.info("Agregados da frota montados: {} caminhão(ões) em {} ms",
+                    aggregates.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Falha ao montar os agregados da frota", e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    @EventListener
+    public void onTruckChanged(TruckChangedEvent event) {
+        if (event.truckIds().isEmpty()) return;
+
+        if (!event.trucks().isEmpty()) {
+            apply(event.trucks());
+            return;
+        }
+        try {
+            eventExecutor.execute(() -> reload(event.truckIds()));
+        } catch (RejectedExecutionException e) {
+            log.warn("Agregados da frota não atualizados para {} caminhão(ões): executor encerrado", event.truckIds().size());
+        }
+    }
+
+    /**
+     * @throws IllegalStateException enquanto a varredura inicial não terminou
+     */
+    public List<FleetGroupDTO> getGroups(FleetGroupBy groupBy) {
+        FleetAggregates aggregates = current;
+        if (aggregates == null) throw new IllegalStateException("Agregados da frota em construção.");
+        return aggregates.groups(groupBy);
+    }
+
+    private void reload(List<Long> ids) {
+        try {
+            apply(truckRepository.findAllById(ids));
+        } catch (RuntimeException e) {
+            log.error("Falha ao atualizar agregados da frota para {} caminhão(ões)", ids.size(), e);
+        }
+    }
+
+    private void apply(List<TruckEntity> trucks) {
+        // lidos depois da escrita: uma varredura iniciada antes dela pode não ter visto a alteração
+        apply(current, trucks);
+        apply(building, trucks);
+    }
+
+    private static void apply(FleetAggregates aggregates, List<TruckEntity> trucks) {
+        if (aggregates == null) return;
+
+        for (TruckEntity truck : trucks) {
+            aggregates.put(truck.getId(), truck.getVersion() != null ? truck.getVersion() : 0,
+                    truck.getBrand(), truck.getModel(), truck.getManufacturingYear(), truck.getFipePrice());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.truck.service;
+
+import java.util.Locale;
+
+public enum FleetGroupBy {
+    BRAND,
+    MODEL,
+    YEAR;
+
+    public static FleetGroupBy from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Agrupamento inválido (use brand, model ou year).");
+        }
+    }
+}
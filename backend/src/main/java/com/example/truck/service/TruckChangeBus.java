@@ -0,0 +1,271 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Barramento em memória das alterações de caminhões, entregue aos assinantes
+ * por Server-Sent Events. Cada alteração recebe um número de sequência e fica
+ * num buffer de replay; quem reconecta com {@code Last-Event-ID} recebe o que
+ * perdeu, ou um evento {@code reset} (recarregar a lista) se o buffer já não
+ * cobre a lacuna. Cada assinante tem uma fila limitada: quem não acompanha o
+ * ritmo é desconectado em vez de segurar a publicação, e retoma pelo replay.
+ */
+@Component
+public class TruckChangeBus {
+
+    static final String CHANGE_EVENT = "truck";
+    static final String RESET_EVENT = "reset";
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Executor executor;
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private final Duration timeout;
+    private final Counter dropped;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<TruckChangeDTO> replay = new ArrayDeque<>();
+    private final List<Subscription> subscribers = new ArrayList<>();
+    // começa do relógio: IDs de uma execução anterior nunca coincidem com os desta, e o cliente recebe reset
+    private long sequence = System.currentTimeMillis() * 1000;
+
+    /**
+     * Destino dos eventos de um assinante; envios para um mesmo assinante
+     * nunca são concorrentes entre si.
+     */
+    interface Sink {
+
+        void change(TruckChangeDTO change) throws IOException;
+
+        void reset(long sequence) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private record Reset(long sequence) {
+    }
+
+    static final class Subscription {
+
+        private final Sink sink;
+        private final BlockingQueue<Object> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscription(Sink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    public TruckChangeBus(@Qualifier("truckEventExecutor") Executor executor, MeterRegistry meterRegistry,
+                          @Value("${truck.events.replay-size:1000}") int replaySize,
+                          @Value("${truck.events.subscriber-buffer:256}") int subscriberBuffer,
+                          @Value("${truck.events.timeout:30m}") Duration timeout) {
+        this.executor = executor;
+        this.replaySize = replaySize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.timeout = timeout;
+        this.dropped = Counter.builder("truck.events.dropped")
+                .description("Assinantes desconectados por não acompanharem o ritmo dos eventos")
+                .register(meterRegistry);
+        Gauge.builder("truck.events.subscribers", this, TruckChangeBus::getSubscriberCount)
+                .description("Assinantes conectados ao stream de alterações de caminhões")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long lastSequence) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = subscribe(lastSequence, new EmitterSink(emitter));
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        return emitter;
+    }
+
+    Subscription subscribe(Long lastSequence, Sink sink) {
+        Subscription subscription = new Subscription(sink, subscriberBuffer);
+        lock.lock();
+        try {
+            if (lastSequence != null && lastSequence != sequence) {
+                List<TruckChangeDTO> missed = replay.stream().filter(c -> c.getSequence() > lastSequence).toList();
+                boolean covered = lastSequence < sequence && !replay.isEmpty()
+                        && lastSequence >= replay.peekFirst().getSequence() - 1 && missed.size() <= subscriberBuffer;
+                if (covered) {
+                    subscription.queue.addAll(missed);
+                } else {
+                    subscription.queue.add(new Reset(sequence));
+                }
+            }
+            subscribers.add(subscription);
+        } finally {
+            lock.unlock();
+        }
+        drain(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        lock.lock();
+        try {
+            subscribers.remove(subscription);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onTruckChanged(TruckChangedEvent event) {
+        if (event.truckIds().isEmpty()) return;
+        publish(event);
+    }
+
+    void publish(TruckChangedEvent event) {
+        List<Subscription> ready = new ArrayList<>();
+        List<Subscription> overflowed = new ArrayList<>();
+        lock.lock();
+        try {
+            TruckChangeDTO change = new TruckChangeDTO(++sequence, event.type(), List.copyOf(event.truckIds()), Instant.now());
+            if (replay.size() >= replaySize) replay.removeFirst();
+            replay.addLast(change);
+            for (Subscription subscription : subscribers) {
+                (subscription.queue.offer(change) ? ready : overflowed).add(subscription);
+            }
+            subscribers.removeAll(overflowed);
+        } finally {
+            lock.unlock();
+        }
+        ready.forEach(this::drain);
+        overflowed.forEach(subscription -> {
+            dropped.increment();
+            subscription.sink.close();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${truck.events.heartbeat:15s}")
+    public void heartbeat() {
+        List<Subscription> idle = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Subscription subscription : subscribers) {
+                if (subscription.queue.isEmpty() && subscription.queue.offer(HEARTBEAT)) idle.add(subscription);
+            }
+        } finally {
+            lock.unlock();
+        }
+        idle.forEach(this::drain);
+    }
+
+    public int getSubscriberCount() {
+        lock.lock();
+        try {
+            return subscribers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        List<Subscription> current;
+        lock.lock();
+        try {
+            current = List.copyOf(subscribers);
+            subscribers.clear();
+        } finally {
+            lock.unlock();
+        }
+        current.forEach(subscription -> subscription.sink.close());
+    }
+
+    /**
+     * Entrega a fila do assinante numa thread do executor; no máximo uma
+     * entrega por assinante está em andamento, o que preserva a ordem.
+     */
+    private void drain(Subscription subscription) {
+        if (subscription.queue.isEmpty() || !subscription.draining.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> deliver(subscription));
+        } catch (RejectedExecutionException e) {
+            subscription.draining.set(false);
+        }
+    }
+
+    private void deliver(Subscription subscription) {
+        try {
+            do {
+                Object item;
+                while ((item = subscription.queue.poll()) != null) {
+                    if (item instanceof TruckChangeDTO change) {
+                        subscription.sink.change(change);
+                    } else if (item instanceof Reset reset) {
+                        subscription.sink.reset(reset.sequence());
+                    } else {
+                        subscription.sink.heartbeat();
+                    }
+                }
+                subscription.draining.set(false);
+            } while (!subscription.queue.isEmpty() && subscription.draining.compareAndSet(false, true));
+        } catch (IOException | RuntimeException e) {
+            // cliente desconectado
+            unsubscribe(subscription);
+            subscription.queue.clear();
+            subscription.sink.close();
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+
+        @Override
+        public void change(TruckChangeDTO change) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(change.getSequence()))
+                    .name(CHANGE_EVENT)
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void reset(long sequence) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(RESET_EVENT)
+                    .data("Eventos anteriores indisponíveis; recarregue a lista."));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("ping"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.entity.TruckEntity;
+
+import java.util.List;
+
+/**
+ * Publicado depois que caminhões foram cadastrados ou alterados (dados ou
+ * preço), já com a escrita confirmada no banco. {@code trucks} traz o estado
+ * gravado quando quem publica já o tem em mãos (cadastro, edição,
+ * importação); atualizações em massa por {@code UPDATE} publicam só os ids.
+ */
+public record TruckChangedEvent(TruckChangeType type, List<Long> truckIds, List<TruckEntity> trucks) {
+
+    public TruckChangedEvent(TruckChangeType type, List<Long> truckIds) {
+        this(type, truckIds, List.of());
+    }
+
+    public static TruckChangedEvent of(TruckChangeType type, List<TruckEntity> trucks) {
+        return new TruckChangedEvent(type, trucks.stream().map(TruckEntity::getId).toList(), List.copyOf(trucks));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.truck.service;
+
+import com.example.truck.entity.TruckEntity;
+
+/**
+ * A atualização partiu de uma versão do caminhão que já foi alterada por
+ * outra escrita; carrega o estado atual para o cliente refazer a edição.
+ */
+public class TruckConflictException extends RuntimeException {
+
+    private final transient TruckEntity current;
+
+    public TruckConflictException(TruckEntity current) {
+        super("O caminhão foi alterado por outra requisição (versão atual: " + current.getVersion() + ").");
+        this.current = current;
+    }
+
+    public TruckEntity getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.truck.service;
+
+import com.example.truck.entity.TruckEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lê trucks em CSV (vírgula ou ponto e vírgula). O cabeçalho é opcional; sem
+ * ele as colunas são placa, marca, modelo e ano de fabricação, nessa ordem.
+ */
+public final class TruckCsvParser {
+
+    private static final Map<String, Integer> COLUMNS = Map.ofEntries(
+            Map.entry("licenseplate", 0), Map.entry("license_plate", 0), Map.entry("placa", 0),
+            Map.entry("brand", 1), Map.entry("marca", 1),
+            Map.entry("model", 2), Map.entry("modelo", 2),
+            Map.entry("manufacturingyear", 3), Map.entry("manufacturing_year", 3), Map.entry("ano", 3)
+    );
+
+    /**
+     * Caminhão lido e o número da linha de origem no arquivo (a partir de 1,
+     * contando o cabeçalho e as linhas em branco).
+     */
+    public record Row(int line, TruckEntity truck) {
+    }
+
+    private TruckCsvParser() {
+    }
+
+    public static List<TruckEntity> parse(String csv) {
+        return parseRows(csv).stream().map(Row::truck).toList();
+    }
+
+    public static List<Row> parseRows(String csv) {
+        List<Row> rows = new ArrayList<>();
+        if (csv == null || csv.isBlank()) return rows;
+
+        String[] lines = csv.replace("\uFEFF", "").split("\\R");
+        char delimiter = lines[0].indexOf(';') >= 0 && lines[0].indexOf(',') < 0 ? ';' : ',';
+
+        int[] positions = {0, 1, 2, 3};
+        int first = 0;
+        List<String> header = splitLine(lines[0], delimiter);
+        if (isHeader(header)) {
+            positions = new int[]{-1, -1, -1, -1};
+            for (int i = 0; i < header.size(); i++) {
+                Integer column = COLUMNS.get(header.get(i).toLowerCase(Locale.ROOT));
+                if (column != null) positions[column] = i;
+            }
+            first = 1;
+        }
+
+        for (int i = first; i < lines.length; i++) {
+            if (lines[i].isBlank()) continue;
+            List<String> fields = splitLine(lines[i], delimiter);
+            rows.add(new Row(i + 1, new TruckEntity(
+                    field(fields, positions[0]),
+                    field(fields, positions[1]),
+                    field(fields, positions[2]),
+                    parseYear(field(fields, positions[3]))
+            )));
+        }
+        return rows;
+    }
+
+    private static boolean isHeader(List<String> fields) {
+        return fields.stream().anyMatch(f -> COLUMNS.containsKey(f.toLowerCase(Locale.ROOT)));
+    }
+
+    private static String field(List<String> fields, int position) {
+        if (position < 0 || position >= fields.size()) return null;
+        String value = fields.get(position);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseYear(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> splitLine(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+}
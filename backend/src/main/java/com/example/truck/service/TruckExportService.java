@@ -0,0 +1,97 @@
+package com.example.truck.service;
+
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.repository.TruckRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TruckExportService {
+
+    private static final String CSV_HEADER = "id,licensePlate,brand,model,manufacturingYear,fipePrice,createdDate,updatedDate";
+
+    private final TruckRepository truckRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public TruckExportService(TruckRepository truckRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.truckRepository = truckRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Transactional(readOnly = true)
+    public void export(TruckExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = null;
+
+        if (format == TruckExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        } else {
+            generator = jsonWriter.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        try (Stream<TruckEntity> trucks = truckRepository.streamAll()) {
+            Iterator<TruckEntity> iterator = trucks.iterator();
+            while (iterator.hasNext()) {
+                TruckEntity truck = iterator.next();
+                if (generator != null) {
+                    jsonWriter.writeValue(generator, truck);
+                    generator.writeRaw('\n');
+                } else {
+                    writeCsvRow(writer, truck);
+                }
+                entityManager.detach(truck);
+            }
+        }
+
+        if (generator != null) generator.flush();
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, TruckEntity truck) throws IOException {
+        writer.write(String.valueOf(truck.getId()));
+        writer.write(',');
+        writer.write(csv(truck.getLicensePlate()));
+        writer.write(',');
+        writer.write(csv(truck.getBrand()));
+        writer.write(',');
+        writer.write(csv(truck.getModel()));
+        writer.write(',');
+        writer.write(csv(truck.getManufacturingYear()));
+        writer.write(',');
+        writer.write(truck.getFipePrice() != null ? truck.getFipePrice().toPlainString() : "");
+        writer.write(',');
+        writer.write(csv(truck.getCreatedDate()));
+        writer.write(',');
+        writer.write(csv(truck.getUpdatedDate()));
+        writer.write('\n');
+    }
+
+    private static String csv(Object value) {
+        if (value == null) return "";
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.dto.TruckImportReportDTO;
+import com.example.truck.dto.TruckImportResultDTO;
+import com.example.truck.dto.TruckImportStatus;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
+import com.example.truck.repository.TruckRepository;
+import com.example.truck.service.fipe.FipeNameIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Importação em lote. Cada bloco é gravado em uma transação própria
+ * ({@code REQUIRES_NEW}, com contexto de persistência próprio); se o bloco
+ * falhar, suas linhas são regravadas uma a uma, cada uma também em transação
+ * e contexto novos, para isolar a linha com problema. O resultado de cada
+ * linha traz o número da linha de origem (no CSV, a linha do arquivo; em
+ * JSON, a posição no array).
+ */
+@Service
+public class TruckImportService {
+
+    private static final int PLATE_QUERY_CHUNK = 1000;
+
+    private final TruckRepository truckRepository;
+    private final TruckService truckService;
+    private final ExecutorService fipeExecutor;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+    private final int maxRows;
+
+    public TruckImportService(TruckRepository truckRepository, TruckService truckService,
+                              @Qualifier("fipeExecutor") ExecutorService fipeExecutor, Validator validator,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${truck.import.batch-size:500}") int batchSize,
+                              @Value("${truck.import.max-rows:50000}") int maxRows) {
+        this.truckRepository = truckRepository;
+        this.truckService = truckService;
+        this.fipeExecutor = fipeExecutor;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    public TruckImportReportDTO importCsv(String csv) {
+        List<TruckCsvParser.Row> rows = TruckCsvParser.parseRows(csv);
+        return importTrucks(rows.stream().map(TruckCsvParser.Row::truck).toList(),
+                rows.stream().mapToInt(TruckCsvParser.Row::line).toArray());
+    }
+
+    public TruckImportReportDTO importTrucks(List<TruckEntity> trucks) {
+        return importTrucks(trucks, IntStream.rangeClosed(1, trucks.size()).toArray());
+    }
+
+    private TruckImportReportDTO importTrucks(List<TruckEntity> trucks, int[] lines) {
+        if (trucks.size() > maxRows) {
+            throw new IllegalArgumentException("Importação limitada a " + maxRows + " caminhões por requisição.");
+        }
+
+        ImportResults results = new ImportResults(lines);
+        List<Integer> pending = validate(trucks, results);
+
+        rejectExistingPlates(trucks, pending, results);
+        YearMonth[] referenceMonths = resolveFipePrices(trucks, pending, results);
+        persist(trucks, pending, results, referenceMonths);
+
+        List<TruckImportResultDTO> rows = List.of(results.rows);
+        int created = (int) rows.stream().filter(r -> r.getStatus() == TruckImportStatus.CREATED).count();
+        return new TruckImportReportDTO(rows.size(), created, rows.size() - created, rows);
+    }
+
+    private List<Integer> validate(List<TruckEntity> trucks, ImportResults results) {
+        List<Integer> pending = new ArrayList<>(trucks.size());
+        Set<String> platesInBatch = new HashSet<>();
+
+        for (int i = 0; i < trucks.size(); i++) {
+            TruckEntity truck = trucks.get(i);
+            if (truck == null) {
+                results.reject(i, null, TruckImportStatus.INVALID, "Linha vazia");
+                continue;
+            }
+            truck.setId(null);
+            truck.setVersion(null);
+
+            Set<ConstraintViolation<TruckEntity>> violations = validator.validate(truck);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results.reject(i, truck.getLicensePlate(), TruckImportStatus.INVALID, message);
+            } else if (!platesInBatch.add(TruckEntity.normalizeLicensePlate(truck.getLicensePlate()))) {
+                results.reject(i, truck.getLicensePlate(), TruckImportStatus.DUPLICATE, "Placa repetida no lote");
+            } else {
+                pending.add(i);
+            }
+        }
+        return pending;
+    }
+
+    private void rejectExistingPlates(List<TruckEntity> trucks, List<Integer> pending, ImportResults results) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < pending.size(); from += PLATE_QUERY_CHUNK) {
+            List<String> plates = pending.subList(from, Math.min(from + PLATE_QUERY_CHUNK, pending.size())).stream()
+                    .map(i -> TruckEntity.normalizeLicensePlate(trucks.get(i).getLicensePlate()))
+                    .toList();
+            existing.addAll(truckRepository.findExistingLicensePlates(plates));
+        }
+
+        pending.removeIf(i -> {
+            TruckEntity truck = trucks.get(i);
+            if (!existing.contains(TruckEntity.normalizeLicensePlate(truck.getLicensePlate()))) return false;
+            results.reject(i, truck.getLicensePlate(), TruckImportStatus.DUPLICATE, "Placa já cadastrada");
+            return true;
+        });
+    }
+
+    /**
+     * @return mês de referência FIPE do preço de cada linha (por índice)
+     */
+    private YearMonth[] resolveFipePrices(List<TruckEntity> trucks, List<Integer> pending, ImportResults results) {
+        Map<String, CompletableFuture<FipeValuation>> valuations = new HashMap<>();
+        for (int i : pending) {
+            TruckEntity truck = trucks.get(i);
+            valuations.computeIfAbsent(fipeKey(truck), key -> CompletableFuture.supplyAsync(
+                    () -> truckService.resolveFipeValuation(truck.getBrand(), truck.getModel(), truck.getManufacturingYear()),
+                    fipeExecutor));
+        }
+
+        YearMonth[] referenceMonths = new YearMonth[trucks.size()];
+        pending.removeIf(i -> {
+            TruckEntity truck = trucks.get(i);
+            try {
+                FipeValuation valuation = valuations.get(fipeKey(truck)).join();
+                truck.setFipePrice(valuation.price());
+                referenceMonths[i] = valuation.referenceMonth();
+                truck.setValuationStatus(ValuationStatus.COMPLETED);
+                truck.setValuationMessage(null);
+                return false;
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                TruckImportStatus status = cause instanceof IllegalArgumentException
+                        ? TruckImportStatus.FIPE_NOT_FOUND : TruckImportStatus.FAILED;
+                results.reject(i, truck.getLicensePlate(), status, cause.getMessage());
+                return true;
+            }
+        });
+        return referenceMonths;
+    }
+
+    private void persist(List<TruckEntity> trucks, List<Integer> pending, ImportResults results,
+                         YearMonth[] referenceMonths) {
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    chunk.forEach(i -> entityManager.persist(trucks.get(i)));
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                chunk.forEach(i -> results.created(i, trucks.get(i)));
+            } catch (RuntimeException e) {
+                chunk.forEach(i -> persistSingle(i, trucks.get(i), results));
+            }
+            List<Integer> createdRows = chunk.stream()
+                    .filter(i -> results.rows[i].getStatus() == TruckImportStatus.CREATED)
+                    .toList();
+            createdRows.stream()
+                    .collect(Collectors.groupingBy(i -> referenceMonths[i], Collectors.mapping(i -> trucks.get(i).getId(),
+                            Collectors.toList())))
+                    .forEach((month, ids) -> eventPublisher.publishEvent(new TruckPriceChangedEvent(ids, month)));
+            eventPublisher.publishEvent(TruckChangedEvent.of(TruckChangeType.CREATED,
+                    createdRows.stream().map(trucks::get).toList()));
+        }
+    }
+
+    /**
+     * Grava a linha sozinha, em uma transação nova; o contexto do bloco que
+     * falhou já foi descartado no rollback, e o id e a versão que ele
+     * atribuiu à entidade são limpos.
+     */
+    private void persistSingle(int i, TruckEntity truck, ImportResults results) {
+        truck.setId(null);
+        truck.setVersion(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(truck);
+                entityManager.flush();
+            });
+            results.created(i, truck);
+        } catch (RuntimeException e) {
+            truck.setId(null);
+            truck.setVersion(null);
+            if (TruckService.isPlateConflict(e)) {
+                results.reject(i, truck.getLicensePlate(), TruckImportStatus.DUPLICATE, "Placa já cadastrada");
+            } else {
+                results.reject(i, truck.getLicensePlate(), TruckImportStatus.FAILED, "Erro ao salvar: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String fipeKey(TruckEntity truck) {
+        return FipeNameIndex.normalize(truck.getBrand()) + '|' + FipeNameIndex.normalize(truck.getModel())
+                + '|' + truck.getManufacturingYear();
+    }
+
+    /**
+     * Resultado por linha (pelo índice na lista), numerado pela linha de origem.
+     */
+    private static final class ImportResults {
+
+        private final int[] lines;
+        private final TruckImportResultDTO[] rows;
+
+        private ImportResults(int[] lines) {
+            this.lines = lines;
+            this.rows = new TruckImportResultDTO[lines.length];
+        }
+
+        void created(int i, TruckEntity truck) {
+            rows[i] = new TruckImportResultDTO(lines[i], truck.getLicensePlate(), TruckImportStatus.CREATED, truck.getId(), null);
+        }
+
+        void reject(int i, String licensePlate, TruckImportStatus status, String message) {
+            rows[i] = new TruckImportResultDTO(lines[i], licensePlate, status, null, message);
+        }
+    }
+}
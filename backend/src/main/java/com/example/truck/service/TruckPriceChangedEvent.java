@@ -0,0 +1,12 @@
+package com.example.truck.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Publicado depois que o preço FIPE de caminhões já gravados foi definido ou
+ * reavaliado; {@code referenceMonth} é o mês de referência da tabela FIPE de
+ * onde o preço veio.
+ */
+public record TruckPriceChangedEvent(List<Long> truckIds, YearMonth referenceMonth) {
+}
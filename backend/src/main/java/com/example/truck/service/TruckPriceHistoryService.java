@@ -0,0 +1,88 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.FleetMonthValueDTO;
+import com.example.truck.dto.PriceMoverDTO;
+import com.example.truck.dto.ValuationChangeDTO;
+import com.example.truck.repository.TruckPriceHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Série histórica de preços FIPE por caminhão e mês de referência. Cada
+ * avaliação (cadastro, atualização, avaliação diferida, importação e
+ * reavaliação mensal) grava o ponto do mês de referência FIPE do preço,
+ * depois do commit e fora da thread de quem escreveu; as agregações rodam
+ * no banco.
+ */
+@Service
+public class TruckPriceHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TruckPriceHistoryService.class);
+    private static final int MAX_MOVERS = 100;
+
+    private final TruckPriceHistoryRepository historyRepository;
+    private final Executor executor;
+    private final Counter failures;
+
+    public TruckPriceHistoryService(TruckPriceHistoryRepository historyRepository,
+                                    @Qualifier("truckEventExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.historyRepository = historyRepository;
+        this.executor = executor;
+        this.failures = Counter.builder("truck.price.history.failures")
+                .description("Pontos de histórico de preço FIPE que não puderam ser gravados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Só roda depois do commit da escrita que publicou o evento (ou na hora,
+     * se ela não estava em transação), numa transação própria.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceChanged(TruckPriceChangedEvent event) {
+        if (event.truckIds().isEmpty()) return;
+
+        try {
+            executor.execute(() -> record(event));
+        } catch (RejectedExecutionException e) {
+            failures.increment(event.truckIds().size());
+            log.warn("Histórico de preço de {} caminhão(ões) não gravado: executor encerrado", event.truckIds().size());
+        }
+    }
+
+    public List<FleetMonthValueDTO> getMonthlyFleetValue() {
+        return historyRepository.findMonthlyFleetValue();
+    }
+
+    public List<ValuationChangeDTO> getDepreciation(YearMonth from, YearMonth to, boolean byModel) {
+        LocalDate fromMonth = from.atDay(1);
+        LocalDate toMonth = to.atDay(1);
+        return byModel ? historyRepository.findChangeByBrandAndModel(fromMonth, toMonth)
+                : historyRepository.findChangeByBrand(fromMonth, toMonth);
+    }
+
+    public List<PriceMoverDTO> getTopMovers(YearMonth from, YearMonth to, int limit) {
+        return historyRepository.findTopMovers(from.atDay(1), to.atDay(1),
+                PageRequest.of(0, Math.clamp(limit, 1, MAX_MOVERS)));
+    }
+
+    private void record(TruckPriceChangedEvent event) {
+        try {
+            historyRepository.recordCurrentPrices(event.truckIds(), event.referenceMonth().atDay(1));
+        } catch (RuntimeException e) {
+            failures.increment(event.truckIds().size());
+            log.error("Falha ao registrar histórico de preço de {} caminhão(ões)", event.truckIds().size(), e);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.dto.TruckFipeKeyDTO;
+import com.example.truck.entity.RevaluationRunEntity;
+import com.example.truck.entity.RevaluationStatus;
+import com.example.truck.repository.RevaluationRunRepository;
+import com.example.truck.repository.TruckRepository;
+import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipeNameIndex;
+import com.example.truck.service.fipe.FipeReferenceMonth;
+import com.example.truck.service.fipe.FipeUnavailableException;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Reavaliação FIPE da frota inteira. Percorre a tabela em blocos ordenados
+ * por id, consulta cada combinação marca/modelo/ano uma única vez (em paralelo,
+ * com limite de taxa por chamada à API e preço sempre vindo da API, não do
+ * espelho ou do cache) e grava um checkpoint por bloco. Se a FIPE ficar
+ * indisponível ou a janela de manutenção acabar, a execução é pausada e
+ * retomada do checkpoint no próximo disparo: o mensal ou o diário de
+ * {@code fipe.revaluation.resume-cron}, que só age sobre execuções pausadas.
+ * Uma execução de um mês de referência anterior não é retomada: é encerrada
+ * ({@link RevaluationStatus#SUPERSEDED}) e uma nova começa do primeiro
+ * caminhão, inclusive quando o mês muda no meio da execução.
+ * <p>
+ * Com várias instâncias, só a que reservou a execução em
+ * {@code fipe_revaluation_run} a processa; a reserva é renovada a cada bloco e
+ * expira em {@code fipe.revaluation.lease}, quando outra instância pode
+ * retomá-la.
+ */
+@Service
+public class TruckRevaluationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TruckRevaluationService.class);
+
+    private final TruckRepository truckRepository;
+    private final RevaluationRunRepository runRepository;
+    private final TruckService truckService;
+    private final FipeApiClient fipeApiClient;
+    private final ExecutorService fipeExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RateLimiter rateLimiter;
+    private final int chunkSize;
+    private final Duration maxDuration;
+    private final Duration lease;
+    private final String instanceId = Optional.ofNullable(System.getenv("HOSTNAME")).orElse("app")
+            + '-' + UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    public TruckRevaluationService(TruckRepository truckRepository, RevaluationRunRepository runRepository,
+                                   TruckService truckService, FipeApiClient fipeApiClient,
+                                   @Qualifier("fipeExecutor") ExecutorService fipeExecutor,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${fipe.revaluation.rate-limit:20}") int callsPerSecond,
+                                   @Value("${fipe.revaluation.chunk-size:500}") int chunkSize,
+                                   @Value("${fipe.revaluation.max-duration:2h}") Duration maxDuration,
+                                   @Value("${fipe.revaluation.lease:10m}") Duration lease) {
+        this.truckRepository = truckRepository;
+        this.runRepository = runRepository;
+        this.truckService = truckService;
+        this.fipeApiClient = fipeApiClient;
+        this.fipeExecutor = fipeExecutor;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxDuration = maxDuration;
+        this.lease = lease;
+        this.rateLimiter = RateLimiter.of("fipe-revaluation", RateLimiterConfig.custom()
+                .limitForPeriod(callsPerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+    }
+
+    @Scheduled(cron = "${fipe.revaluation.cron:0 0 3 8 * *}")
+    public void scheduledRun() {
+        try {
+            start();
+        } catch (IllegalStateException e) {
+            log.info("Reavaliação FIPE agendada ignorada: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${fipe.revaluation.resume-cron:0 0 3 * * *}")
+    public void resumePausedRun() {
+        boolean paused = runRepository.findFirstByOrderByIdDesc()
+                .map(run -> run.getStatus() == RevaluationStatus.PAUSED)
+                .orElse(false);
+        if (paused) scheduledRun();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        runRepository.findFirstByStatusInOrderByIdDesc(List.of(RevaluationStatus.RUNNING))
+                .ifPresent(run -> {
+                    if (!active.compareAndSet(false, true)) return;
+                    if (claim(run)) {
+                        launch(run);
+                    } else {
+                        active.set(false);
+                        log.info("Reavaliação FIPE {} em andamento em outra instância ({})", run.getId(), run.getClaimedBy());
+                    }
+                });
+    }
+
+    /**
+     * Retoma a última execução pausada ou inicia uma nova; a pausada é
+     * encerrada, e não retomada, se for de outro mês de referência.
+     *
+     * @throws IllegalStateException se já houver uma execução em andamento,
+     *                               nesta ou em outra instância
+     */
+    public RevaluationRunEntity start() {
+        if (!active.compareAndSet(false, true)) {
+            throw new IllegalStateException("Já existe uma reavaliação em andamento.");
+        }
+
+        try {
+            RevaluationRunEntity run = runRepository
+                    .findFirstByStatusInOrderByIdDesc(List.of(RevaluationStatus.RUNNING, RevaluationStatus.PAUSED))
+                    .orElse(null);
+            String referenceMonth = fipeApiClient.getReferenceMonth();
+            if (run != null && run.getStatus() == RevaluationStatus.PAUSED && monthChanged(run, referenceMonth)) {
+                supersede(run, referenceMonth);
+                run = null;
+            }
+            if (run == null) run = newRun(referenceMonth);
+            if (run.getId() == null || run.getStatus() != RevaluationStatus.RUNNING) {
+                run.setStatus(RevaluationStatus.RUNNING);
+                try {
+                    run = runRepository.save(run);
+                } catch (DataIntegrityViolationException e) {
+                    // índice único: outra instância colocou uma execução em andamento
+                    throw new IllegalStateException("Já existe uma reavaliação em andamento.");
+                }
+            }
+            if (!claim(run)) {
+                throw new IllegalStateException("Já existe uma reavaliação em andamento em outra instância.");
+            }
+            launch(run);
+            return run;
+        } catch (RuntimeException e) {
+            active.set(false);
+            throw e;
+        }
+    }
+
+    public Optional<RevaluationRunEntity> getLatestRun() {
+        return runRepository.findFirstByOrderByIdDesc();
+    }
+
+    private void launch(RevaluationRunEntity run) {
+        Thread.ofPlatform().name("fipe-revaluation").daemon().start(() -> execute(run));
+    }
+
+    void execute(RevaluationRunEntity run) {
+        Instant deadline = Instant.now().plus(maxDuration);
+        Map<String, FipeValuation> prices = new HashMap<>();
+        try {
+            while (true) {
+                if (!claim(run)) {
+                    log.warn("Reavaliação FIPE {} abandonada no id {}: reserva assumida por outra instância",
+                            run.getId(), run.getLastTruckId());
+                    return;
+                }
+                if (Instant.now().isAfter(deadline)) {
+                    log.info("Reavaliação FIPE {} pausada: janela de {} esgotada no id {}",
+                            run.getId(), maxDuration, run.getLastTruckId());
+                    finish(run, RevaluationStatus.PAUSED);
+                    return;
+                }
+
+                List<TruckFipeKeyDTO> chunk = truckRepository.findFipeKeysAfter(run.getLastTruckId(),
+                        PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    finish(run, RevaluationStatus.COMPLETED);
+                    return;
+                }
+
+                ChunkResult result = revalue(chunk, prices);
+                if (result.unavailable()) {
+                    log.warn("Reavaliação FIPE {} pausada: FIPE indisponível após o id {}",
+                            run.getId(), run.getLastTruckId());
+                    finish(run, RevaluationStatus.PAUSED);
+                    return;
+                }
+
+                run.setLastTruckId(chunk.getLast().getId());
+                run.setProcessed(run.getProcessed() + chunk.size());
+                run.setUpdated(run.getUpdated() + result.updated());
+                run.setFailed(run.getFailed() + result.failed());
+
+                // os preços deste bloco já atualizaram o cache com o mês da tabela usada
+                String referenceMonth = fipeApiClient.getReferenceMonth();
+                if (run.getReferenceMonth() == null) {
+                    run.setReferenceMonth(referenceMonth);
+                } else if (monthChanged(run, referenceMonth)) {
+                    supersede(run, referenceMonth);
+                    run = runRepository.save(newRun(referenceMonth));
+                    prices.clear();
+                    continue;
+                }
+                run = runRepository.save(run);
+            }
+        } catch (RuntimeException e) {
+            log.error("Reavaliação FIPE {} interrompida no id {}", run.getId(), run.getLastTruckId(), e);
+            finish(run, RevaluationStatus.PAUSED);
+        } finally {
+            active.set(false);
+        }
+    }
+
+    private ChunkResult revalue(List<TruckFipeKeyDTO> chunk, Map<String, FipeValuation> prices) {
+        Map<String, List<TruckFipeKeyDTO>> groups = chunk.stream()
+                .collect(Collectors.groupingBy(TruckRevaluationService::fipeKey, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, CompletableFuture<FipeValuation>> pending = new HashMap<>();
+        groups.forEach((key, trucks) -> {
+            if (prices.containsKey(key)) return;
+            TruckFipeKeyDTO truck = trucks.getFirst();
+            pending.put(key, CompletableFuture.supplyAsync(() -> truckService.revalueFipeValuation(
+                    truck.getBrand(), truck.getModel(), truck.getManufacturingYear(), rateLimiter), fipeExecutor));
+        });
+
+        int updated = 0;
+        int failed = 0;
+        boolean unavailable = false;
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, List<TruckFipeKeyDTO>> group : groups.entrySet()) {
+            FipeValuation valuation = prices.get(group.getKey());
+            if (valuation == null) {
+                try {
+                    valuation = pending.get(group.getKey()).join();
+                    prices.put(group.getKey(), valuation);
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof FipeUnavailableException) unavailable = true;
+                    failed += group.getValue().size();
+                    continue;
+                }
+            }
+            List<Long> ids = group.getValue().stream().map(TruckFipeKeyDTO::getId).toList();
+            int changed = truckRepository.updateFipePrice(ids, valuation.price(), now);
+            updated += changed;
+            eventPublisher.publishEvent(new TruckPriceChangedEvent(ids, valuation.referenceMonth()));
+            if (changed > 0) eventPublisher.publishEvent(new TruckChangedEvent(TruckChangeType.PRICE_CHANGED, ids));
+        }
+        return new ChunkResult(updated, failed, unavailable);
+    }
+
+    private void finish(RevaluationRunEntity run, RevaluationStatus status) {
+        run.setStatus(status);
+        if (status == RevaluationStatus.COMPLETED) {
+            run.setReferenceMonth(fipeApiClient.getReferenceMonth());
+        }
+        if (status != RevaluationStatus.PAUSED) {
+            run.setFinishedDate(LocalDateTime.now());
+        }
+        runRepository.save(run);
+        runRepository.release(run.getId(), instanceId);
+    }
+
+    private void supersede(RevaluationRunEntity run, String referenceMonth) {
+        log.info("Reavaliação FIPE {} encerrada no id {}: mês de referência mudou de {} para {}; recomeçando do início",
+                run.getId(), run.getLastTruckId(), run.getReferenceMonth(), referenceMonth);
+        finish(run, RevaluationStatus.SUPERSEDED);
+    }
+
+    private static RevaluationRunEntity newRun(String referenceMonth) {
+        RevaluationRunEntity run = new RevaluationRunEntity();
+        run.setReferenceMonth(referenceMonth);
+        return run;
+    }
+
+    /**
+     * Verdadeiro se o mês atual é conhecido e não é o da execução (inclusive
+     * quando a execução não registrou mês).
+     */
+    private static boolean monthChanged(RevaluationRunEntity run, String referenceMonth) {
+        Optional<YearMonth> current = FipeReferenceMonth.parse(referenceMonth);
+        return current.isPresent() && !current.equals(FipeReferenceMonth.parse(run.getReferenceMonth()));
+    }
+
+    /**
+     * Reserva ou renova a execução para esta instância; falso se outra
+     * instância a detém.
+     */
+    private boolean claim(RevaluationRunEntity run) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+        if (runRepository.claim(run.getId(), instanceId, now, until) == 0) return false;
+
+        run.setClaimedBy(instanceId);
+        run.setLeaseUntil(until);
+        return true;
+    }
+
+    private static String fipeKey(TruckFipeKeyDTO truck) {
+        return FipeNameIndex.normalize(truck.getBrand()) + '|' + FipeNameIndex.normalize(truck.getModel())
+                + '|' + truck.getManufacturingYear();
+    }
+
+    private record ChunkResult(int updated, int failed, boolean unavailable) {
+    }
+}
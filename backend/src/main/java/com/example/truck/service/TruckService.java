@@ -1,110 +1,315 @@
 package com.example.truck.service;
 
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.dto.TruckCursor;
+import com.example.truck.dto.TruckFilterDTO;
+import com.example.truck.dto.TruckPageDTO;
+import com.example.truck.dto.TruckSummaryDTO;
 import com.example.truck.dto.fipe.FipePriceResponseDTO;
 import com.example.truck.dto.fipe.FipeYearDTO;
 import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
 import com.example.truck.repository.TruckRepository;
 import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipePriceParser;
+import com.example.truck.service.fipe.FipeReferenceMonth;
+import com.example.truck.service.fipe.FipeUnavailableException;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 
 @Service
 public class TruckService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String CREATE = "create";
+    private static final String UPDATE = "update";
+    private static final String PLATE_UNIQUE_CONSTRAINT = "truck_license_plate_key";
+    private static final String SPECULATIVE_YEAR_SUFFIX = "-3";
+
     private final TruckRepository truckRepository;
     private final FipeApiClient fipeApiClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Executor writeExecutor;
 
-    public TruckService(TruckRepository truckRepository, FipeApiClient fipeApiClient) {
+    public TruckService(TruckRepository truckRepository, FipeApiClient fipeApiClient,
+                        ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                        @Qualifier("truckWriteExecutor") Executor writeExecutor) {
         this.truckRepository = truckRepository;
         this.fipeApiClient = fipeApiClient;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.writeExecutor = writeExecutor;
     }
 
     public TruckEntity createTruck(TruckEntity truck) {
-        if (truckRepository.existsByLicensePlate(truck.getLicensePlate())) {
-            throw new IllegalArgumentException("Placa já cadastrada");
+        return timedWrite(CREATE, () -> {
+            // Pré-checagem só no cache de natural id, sem ida ao banco: placa já conhecida não gasta
+            // chamadas à FIPE. Placa nova (ou fora do cache) é decidida pelo ON CONFLICT do insert
+            if (phase(CREATE, "plate", () -> truckRepository.isCachedLicensePlate(truck.getLicensePlate()))) {
+                throw new IllegalArgumentException("Placa já cadastrada");
+            }
+            FipeValuation valuation = phase(CREATE, "fipe",
+                    () -> resolveFipeValuation(truck.getBrand(), truck.getModel(), truck.getManufacturingYear(), true));
+            truck.setFipePrice(valuation.price());
+            truck.setValuationStatus(ValuationStatus.COMPLETED);
+            truck.setValuationMessage(null);
+
+            if (!phase(CREATE, "persist", () -> truckRepository.insertIfAbsent(truck))) {
+                throw new IllegalArgumentException("Placa já cadastrada");
+            }
+            eventPublisher.publishEvent(new TruckPriceChangedEvent(List.of(truck.getId()), valuation.referenceMonth()));
+            eventPublisher.publishEvent(TruckChangedEvent.of(TruckChangeType.CREATED, List.of(truck)));
+            return truck;
+        });
+    }
+
+    public Optional<TruckEntity> getTruckById(Long id) {
+        return truckRepository.findById(id);
+    }
+
+    public TruckPageDTO getTrucks(TruckFilterDTO filter) {
+        if (!TruckFilterDTO.SORT_ID.equals(filter.getSort()) && !filter.isSortByUpdatedDate()) {
+            throw new IllegalArgumentException("Ordenação inválida (use id ou updatedDate).");
         }
 
-        String brandId = fipeApiClient.getBrandCode(truck.getBrand());
+        int limit = filter.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.clamp(filter.getLimit(), 1, MAX_PAGE_SIZE);
+        TruckCursor after = (filter.getCursor() == null || filter.getCursor().isBlank())
+                ? null : TruckCursor.decode(filter.getCursor());
+        if (after != null && !after.sort().equals(filter.getSort())) {
+            throw new IllegalArgumentException("Cursor gerado para outra ordenação (" + after.sort() + ").");
+        }
+
+        List<TruckSummaryDTO> rows = truckRepository.findPage(filter, after, limit + 1);
+        if (rows.size() <= limit) {
+            return new TruckPageDTO(rows, null);
+        }
+
+        List<TruckSummaryDTO> items = List.copyOf(rows.subList(0, limit));
+        TruckSummaryDTO last = items.get(limit - 1);
+        return new TruckPageDTO(items, new TruckCursor(filter.getSort(), last.getId(), last.getUpdatedDate()).encode());
+    }
+
+    /**
+     * A carga do caminhão e a resolução do preço FIPE são independentes e
+     * correm em paralelo; a latência fica próxima da mais lenta das duas.
+     * Se {@code version} vier preenchida, ela precisa ser a versão atual; uma
+     * escrita concorrente entre a carga e a gravação também resulta em
+     * {@link TruckConflictException}, com o estado atual do caminhão.
+     */
+    public TruckEntity updateTruck(Long id, TruckEntity updatedTruck) {
+        return timedWrite(UPDATE, () -> {
+            CompletableFuture<Optional<TruckEntity>> load = CompletableFuture.supplyAsync(
+                    () -> phase(UPDATE, "load", () -> truckRepository.findById(id)), writeExecutor);
+
+            FipeValuation valuation;
+            try {
+                valuation = phase(UPDATE, "fipe", () -> resolveFipeValuation(updatedTruck.getBrand(),
+                        updatedTruck.getModel(), updatedTruck.getManufacturingYear(), true));
+            } catch (RuntimeException e) {
+                // caminhão inexistente tem precedência sobre erro de FIPE
+                if (join(load).isEmpty()) throw notFound(id);
+                throw e;
+            }
+            TruckEntity existingTruck = join(load).orElseThrow(() -> notFound(id));
+            if (updatedTruck.getVersion() != null && !updatedTruck.getVersion().equals(existingTruck.getVersion())) {
+                throw new TruckConflictException(existingTruck);
+            }
+
+            existingTruck.setLicensePlate(updatedTruck.getLicensePlate());
+            existingTruck.setBrand(updatedTruck.getBrand());
+            existingTruck.setModel(updatedTruck.getModel());
+            existingTruck.setManufacturingYear(updatedTruck.getManufacturingYear());
+            existingTruck.setFipePrice(valuation.price());
+            existingTruck.setValuationStatus(ValuationStatus.COMPLETED);
+            existingTruck.setValuationMessage(null);
+
+            TruckEntity saved;
+            try {
+                saved = phase(UPDATE, "persist", () -> truckRepository.save(existingTruck));
+            } catch (OptimisticLockingFailureException e) {
+                throw new TruckConflictException(truckRepository.findById(id).orElseThrow(() -> notFound(id)));
+            } catch (DataIntegrityViolationException e) {
+                if (isPlateConflict(e)) {
+                    throw new IllegalArgumentException("A nova placa já está cadastrada para outro veículo.");
+                }
+                throw e;
+            }
+            eventPublisher.publishEvent(new TruckPriceChangedEvent(List.of(saved.getId()), valuation.referenceMonth()));
+            eventPublisher.publishEvent(TruckChangedEvent.of(TruckChangeType.UPDATED, List.of(saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * Resolve o preço FIPE pela cadeia marca → modelo → anos → preço, sem
+     * chamadas especulativas (importação, avaliação diferida e reavaliação).
+     */
+    public FipeValuation resolveFipeValuation(String brand, String model, Integer manufacturingYear) {
+        return resolveFipeValuation(brand, model, manufacturingYear, false);
+    }
+
+    /**
+     * Marca → modelo → anos → preço é uma cadeia dependente; o único passo
+     * antecipável é o preço. Com {@code speculate} e a lista de anos fora do
+     * cache (duas chamadas à API em sequência), o preço do código de ano mais
+     * comum para caminhões ({@code {ano}-3}, diesel) é buscado junto com a
+     * lista e só é aproveitado se esse for o código encontrado; caso
+     * contrário é cancelado. Com a lista em cache não há especulação, para não
+     * gastar uma chamada à FIPE com um preço que talvez não seja usado. A tarefa
+     * não recebe o contexto da requisição; quem marca a resposta como stale é
+     * a consulta de anos, feita na thread da requisição.
+     */
+    FipeValuation resolveFipeValuation(String brand, String model, Integer manufacturingYear, boolean speculate) {
+        return resolve(brand, model, manufacturingYear, speculate, false);
+    }
+
+    /**
+     * Preço para a reavaliação: o preço em si vem sempre da API (sem espelho
+     * nem cache, que podem ser de um mês anterior), e cada chamada que chega à
+     * API consome uma permissão de {@code rateLimiter}.
+     */
+    public FipeValuation revalueFipeValuation(String brand, String model, Integer manufacturingYear,
+                                              RateLimiter rateLimiter) {
+        return fipeApiClient.rateLimited(rateLimiter, () -> resolve(brand, model, manufacturingYear, false, true));
+    }
+
+    private FipeValuation resolve(String brand, String model, Integer manufacturingYear, boolean speculate,
+                                  boolean freshPrice) {
+        String brandId = fipeApiClient.getBrandCode(brand);
         if (brandId == null) {
             throw new IllegalArgumentException("Marca não encontrada na FIPE.");
         }
 
-        String modelId = fipeApiClient.getModelCode(brandId, truck.getModel());
+        String modelId = fipeApiClient.getModelCode(brandId, model);
         if (modelId == null) {
             throw new IllegalArgumentException("Modelo não encontrado para a marca especificada.");
         }
 
-        List<FipeYearDTO> years = fipeApiClient.getYearsByModel(brandId, modelId);
-        String yearCode = years.stream()
-                .filter(y -> y.getName().startsWith(String.valueOf(truck.getManufacturingYear())))
-                .map(FipeYearDTO::getCode)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Ano não encontrado para este modelo na FIPE."));
+        String speculativeYearCode = manufacturingYear + SPECULATIVE_YEAR_SUFFIX;
+        CompletableFuture<FipePriceResponseDTO> speculativePrice = speculate && !fipeApiClient.hasCachedYears(brandId, modelId)
+                ? CompletableFuture.supplyAsync(() -> fipeApiClient.getPrice(brandId, modelId, speculativeYearCode), writeExecutor)
+                : null;
 
-        FipePriceResponseDTO fipeData = fipeApiClient.getPrice(brandId, modelId, yearCode);
+        String yearCode;
+        try {
+            yearCode = fipeApiClient.getYearsByModel(brandId, modelId).stream()
+                    .filter(y -> y.getName().startsWith(String.valueOf(manufacturingYear)))
+                    .map(FipeYearDTO::getCode)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Ano não encontrado para este modelo na FIPE."));
+        } catch (RuntimeException e) {
+            cancel(speculativePrice);
+            throw e;
+        }
+
+        FipePriceResponseDTO fipeData;
+        if (speculativePrice != null && yearCode.equals(speculativeYearCode)) {
+            fipeData = join(speculativePrice);
+        } else {
+            cancel(speculativePrice);
+            fipeData = freshPrice ? fipeApiClient.refreshPrice(brandId, modelId, yearCode)
+                    : fipeApiClient.getPrice(brandId, modelId, yearCode);
+        }
         if (fipeData == null || fipeData.getPrice() == null) {
             throw new IllegalArgumentException("Combinação de marca, modelo e ano não encontrada na FIPE.");
         }
 
-        truck.setFipePrice(new BigDecimal(
-                fipeData.getPrice().replaceAll("[^\\d,]", "").replace(",", ".")
-        ));
+        return new FipeValuation(FipePriceParser.parse(fipeData.getPrice()), referenceMonth(fipeData));
+    }
 
-        return truckRepository.save(truck);
+    /**
+     * Mês de referência da resposta de preço; sem {@code MesReferencia}
+     * legível, o último mês conhecido do catálogo (ou o mês corrente).
+     */
+    private YearMonth referenceMonth(FipePriceResponseDTO fipeData) {
+        return FipeReferenceMonth.parse(fipeData.getReferenceMonth())
+                .or(() -> FipeReferenceMonth.parse(fipeApiClient.getReferenceMonth()))
+                .orElseGet(YearMonth::now);
     }
 
-    public Optional<TruckEntity> getTruckById(Long id) {
-        return truckRepository.findById(id);
+    /**
+     * Indica se a falha veio do índice único da placa, tanto traduzida pelo
+     * Spring quanto vinda direto do {@code EntityManager}.
+     */
+    static boolean isPlateConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return PLATE_UNIQUE_CONSTRAINT.equals(violation.getConstraintName());
+            }
+        }
+        return false;
     }
 
-    public List<TruckEntity> getAllTrucks() {
-        return truckRepository.findAll();
+    /**
+     * Descarta a especulação não aproveitada; se a tarefa ainda não começou,
+     * a chamada à FIPE nem chega a ser feita.
+     */
+    private static void cancel(CompletableFuture<?> step) {
+        if (step != null) step.cancel(false);
     }
 
-    public TruckEntity updateTruck(Long id, TruckEntity updatedTruck) {
-        return truckRepository.findById(id)
-                .map(existingTruck -> {
-                    if (!existingTruck.getLicensePlate().equals(updatedTruck.getLicensePlate())
-                            && truckRepository.existsByLicensePlate(updatedTruck.getLicensePlate())) {
-                        throw new IllegalArgumentException("A nova placa já está cadastrada para outro veículo.");
-                    }
-
-                    String brandId = fipeApiClient.getBrandCode(updatedTruck.getBrand());
-                    if (brandId == null) {
-                        throw new IllegalArgumentException("Marca não encontrada na FIPE.");
-                    }
-
-                    String modelId = fipeApiClient.getModelCode(brandId, updatedTruck.getModel());
-                    if (modelId == null) {
-                        throw new IllegalArgumentException("Modelo não encontrado para a marca especificada.");
-                    }
-
-                    List<FipeYearDTO> years = fipeApiClient.getYearsByModel(brandId, modelId);
-                    String yearCode = years.stream()
-                            .filter(y -> y.getName().startsWith(String.valueOf(updatedTruck.getManufacturingYear())))
-                            .map(FipeYearDTO::getCode)
-                            .findFirst()
-                            .orElseThrow(() -> new IllegalArgumentException("Ano não encontrado para este modelo na FIPE."));
-
-                    FipePriceResponseDTO fipeData = fipeApiClient.getPrice(brandId, modelId, yearCode);
-                    if (fipeData == null || fipeData.getPrice() == null) {
-                        throw new IllegalArgumentException("Combinação de marca, modelo e ano não encontrada na FIPE.");
-                    }
-
-                    existingTruck.setLicensePlate(updatedTruck.getLicensePlate());
-                    existingTruck.setBrand(updatedTruck.getBrand());
-                    existingTruck.setModel(updatedTruck.getModel());
-                    existingTruck.setManufacturingYear(updatedTruck.getManufacturingYear());
-                    existingTruck.setFipePrice(new BigDecimal(
-                            fipeData.getPrice().replaceAll("[^\\d,]", "").replace(",", ".")
-                    ));
-
-                    return truckRepository.save(existingTruck);
-                })
-                .orElseThrow(() -> new RuntimeException("Caminhão não encontrado com o ID: " + id));
+    private static <T> T join(CompletableFuture<T> step) {
+        try {
+            return step.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static RuntimeException notFound(Long id) {
+        return new RuntimeException("Caminhão não encontrado com o ID: " + id);
+    }
+
+    private <T> T timedWrite(String operation, Supplier<T> write) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = write.get();
+            outcome = "success";
+            return result;
+        } catch (FipeUnavailableException e) {
+            outcome = "fipe_unavailable";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (TruckConflictException e) {
+            outcome = "conflict";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("truck.write")
+                    .description("Cadastro/atualização de caminhão")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private <T> T phase(String operation, String phase, Supplier<T> step) {
+        return Timer.builder("truck.write.phase")
+                .description("Etapas do cadastro/atualização de caminhão")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(step);
     }
 }
@@ -0,0 +1,139 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.dto.TruckValuationDTO;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.entity.ValuationStatus;
+import com.example.truck.repository.TruckRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cadastro com avaliação FIPE diferida: o caminhão é gravado como PENDING e o
+ * preço é resolvido em background, com novas tentativas (backoff exponencial
+ * com jitter) enquanto a FIPE estiver indisponível.
+ */
+@Service
+public class TruckValuationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TruckValuationService.class);
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    private final TruckRepository truckRepository;
+    private final TruckService truckService;
+    private final ExecutorService fipeExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${fipe.valuation.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${fipe.valuation.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${fipe.valuation.max-backoff:1m}")
+    private Duration maxBackoff;
+
+    public TruckValuationService(TruckRepository truckRepository, TruckService truckService,
+                                 @Qualifier("fipeExecutor") ExecutorService fipeExecutor,
+                                 @Qualifier("valuationRetryScheduler") ScheduledExecutorService retryScheduler,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.truckRepository = truckRepository;
+        this.truckService = truckService;
+        this.fipeExecutor = fipeExecutor;
+        this.retryScheduler = retryScheduler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public TruckEntity createTruckDeferred(TruckEntity truck) {
+        truck.setFipePrice(null);
+        truck.setValuationStatus(ValuationStatus.PENDING);
+        truck.setValuationMessage(null);
+
+        if (!truckRepository.insertIfAbsent(truck)) {
+            throw new IllegalArgumentException("Placa já cadastrada");
+        }
+        eventPublisher.publishEvent(TruckChangedEvent.of(TruckChangeType.CREATED, List.of(truck)));
+        schedule(truck);
+        return truck;
+    }
+
+    public Optional<TruckValuationDTO> getValuation(Long id) {
+        return truckRepository.findById(id)
+                .map(t -> new TruckValuationDTO(t.getId(), t.getValuationStatus(), t.getFipePrice(), t.getValuationMessage()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingValuations() {
+        truckRepository.findByValuationStatus(ValuationStatus.PENDING).forEach(this::schedule);
+    }
+
+    private void schedule(TruckEntity truck) {
+        submit(new ValuationTask(truck.getId(), truck.getBrand(), truck.getModel(), truck.getManufacturingYear()), 1);
+    }
+
+    private void submit(ValuationTask task, int attempt) {
+        try {
+            fipeExecutor.execute(() -> run(task, attempt));
+        } catch (RejectedExecutionException e) {
+            log.warn("Avaliação FIPE do caminhão {} não agendada: executor encerrado", task.id());
+        }
+    }
+
+    private void run(ValuationTask task, int attempt) {
+        try {
+            FipeValuation valuation = truckService.resolveFipeValuation(task.brand(), task.model(), task.manufacturingYear());
+            finish(task, ValuationStatus.COMPLETED, valuation, null);
+        } catch (IllegalArgumentException e) {
+            finish(task, ValuationStatus.FAILED, null, e.getMessage());
+        } catch (RuntimeException e) {
+            if (attempt >= maxAttempts) {
+                finish(task, ValuationStatus.FAILED, null, "FIPE indisponível: " + e.getMessage());
+                return;
+            }
+            long delay = backoffMillis(attempt);
+            log.debug("Avaliação FIPE do caminhão {} falhou (tentativa {}), nova tentativa em {} ms",
+                    task.id(), attempt, delay);
+            retryScheduler.schedule(() -> submit(task, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void finish(ValuationTask task, ValuationStatus status, FipeValuation valuation, String message) {
+        if (message != null && message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH);
+        }
+        int updated = truckRepository.updateValuation(task.id(), ValuationStatus.PENDING, status,
+                valuation != null ? valuation.price() : null, message, LocalDateTime.now());
+        if (updated == 0) return;
+        if (valuation != null) {
+            eventPublisher.publishEvent(new TruckPriceChangedEvent(List.of(task.id()), valuation.referenceMonth()));
+        }
+        eventPublisher.publishEvent(new TruckChangedEvent(
+                status == ValuationStatus.COMPLETED ? TruckChangeType.PRICE_CHANGED : TruckChangeType.UPDATED,
+                List.of(task.id())));
+    }
+
+    private long backoffMillis(int attempt) {
+        long base = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private record ValuationTask(Long id, String brand, String model, Integer manufacturingYear) {
+    }
+}
@@ -1,77 +1,353 @@
 package com.example.truck.service.fipe;
 
 import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.dto.fipe.FipeCacheStatsDTO;
 import com.example.truck.dto.fipe.FipeModelDTO;
 import com.example.truck.dto.fipe.FipeModelResponseDTO;
 import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import com.example.truck.dto.fipe.FipeSearchResultDTO;
 import com.example.truck.dto.fipe.FipeYearDTO;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 @Service
 public class FipeApiClient {
 
+    private static final String BRANDS_URI = "/marcas";
+    private static final String MODELS_URI = "/marcas/{brand}/modelos";
+    private static final String YEARS_URI = "/marcas/{brand}/modelos/{model}/anos";
+    private static final String PRICE_URI = "/marcas/{brand}/modelos/{model}/anos/{year}";
+    private static final int SEARCH_BRANDS = 3;
+    private static final int SEARCH_BRAND_TOKENS = 3;
+    // limite de taxa das chamadas feitas pela thread corrente (ver rateLimited)
+    private static final ThreadLocal<RateLimiter> RATE_LIMITER = new ThreadLocal<>();
+
     private final RestTemplate restTemplate;
+    private final FipeCatalogCache cache;
+    private final CircuitBreaker circuitBreaker;
+    private final FipeMirror mirror;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadWait;
 
     @Value("${fipe.api.base.url}")
     private String fipeApiBaseUrl;
 
-    public FipeApiClient(RestTemplate restTemplate) {
+    public FipeApiClient(RestTemplate restTemplate, FipeCatalogCache cache, CircuitBreaker fipeCircuitBreaker,
+                         FipeMirror mirror, MeterRegistry meterRegistry,
+                         @Value("${fipe.client.max-concurrent-calls:32}") int maxConcurrentCalls,
+                         @Value("${fipe.client.bulkhead-wait:500ms}") Duration bulkheadWait) {
         this.restTemplate = restTemplate;
+        this.cache = cache;
+        this.circuitBreaker = fipeCircuitBreaker;
+        this.mirror = mirror;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWait = bulkheadWait;
     }
 
     public String getBrandCode(String brandName) {
-        String url = fipeApiBaseUrl + "/marcas";
-        FipeBrandDTO[] brandsArray = restTemplate.getForObject(url, FipeBrandDTO[].class);
-
-        if (brandsArray == null) return null;
-
-        return Arrays.stream(brandsArray)
-                .filter(brand -> brand.getName().equalsIgnoreCase(brandName))
-                .map(FipeBrandDTO::getCode)
-                .findFirst()
-                .orElse(null);
+        FipeBrandCatalog catalog = getBrandCatalog();
+        return catalog != null ? catalog.index().find(brandName) : null;
     }
 
     public String getModelCode(String brandCode, String modelName) {
-        String url = String.format("%s/marcas/%s/modelos", fipeApiBaseUrl, brandCode);
-        FipeModelResponseDTO response = restTemplate.getForObject(url, FipeModelResponseDTO.class);
+        FipeModelCatalog catalog = getModelCatalog(brandCode);
+        return catalog != null ? catalog.index().find(modelName) : null;
+    }
 
-        if (response == null || response.getModels() == null) return null;
+    public String resolveBrandCode(String brandCodeOrName) {
+        FipeBrandCatalog catalog = getBrandCatalog();
+        return catalog != null ? catalog.index().resolve(brandCodeOrName) : null;
+    }
 
-        return response.getModels().stream()
-                .filter(model -> model.getName().equalsIgnoreCase(modelName))
-                .map(FipeModelDTO::getCode)
-                .findFirst()
-                .orElse(null);
+    public String resolveModelCode(String brandCode, String modelCodeOrName) {
+        FipeModelCatalog catalog = getModelCatalog(brandCode);
+        return catalog != null ? catalog.index().resolve(modelCodeOrName) : null;
     }
 
     public List<FipeYearDTO> getYearsByModel(String brandCode, String modelCode) {
-        String url = String.format("%s/marcas/%s/modelos/%s/anos", fipeApiBaseUrl, brandCode, modelCode);
-        FipeYearDTO[] years = restTemplate.getForObject(url, FipeYearDTO[].class);
-        return years != null ? Arrays.asList(years) : List.of();
+        String path = FipePaths.years(brandCode, modelCode);
+        List<FipeYearDTO> years = observe("years", cache::years, path, () -> {
+            FipeYearDTO[] response = fetch(YEARS_URI, FipeYearDTO[].class, brandCode, modelCode);
+            return response != null ? List.of(response) : null;
+        });
+        return years != null ? years : List.of();
+    }
+
+    /**
+     * Indica se a lista de anos do modelo sai do espelho ou do cache, sem chamada à API.
+     */
+    public boolean hasCachedYears(String brandCode, String modelCode) {
+        String path = FipePaths.years(brandCode, modelCode);
+        return (mirror.isLoaded() && mirror.get(path) != null) || cache.hasYears(path);
     }
 
     public FipePriceResponseDTO getPrice(String brandCode, String modelCode, String yearCode) {
-        String url = String.format("%s/marcas/%s/modelos/%s/anos/%s", fipeApiBaseUrl, brandCode, modelCode, yearCode);
+        String path = FipePaths.price(brandCode, modelCode, yearCode);
+        return observe("price", cache::price, path, () -> fetch(PRICE_URI, FipePriceResponseDTO.class, brandCode, modelCode, yearCode));
+    }
+
+    /**
+     * Preço direto da API, sem espelho nem cache; o cache é atualizado com a
+     * resposta. Usado na reavaliação, que não pode gravar como atual o preço
+     * de um mês de referência anterior ainda em cache.
+     */
+    public FipePriceResponseDTO refreshPrice(String brandCode, String modelCode, String yearCode) {
+        FipePriceResponseDTO price = fetchPrice(brandCode, modelCode, yearCode);
+        if (price != null) cache.refreshPrice(FipePaths.price(brandCode, modelCode, yearCode), price);
+        return price;
+    }
+
+    /**
+     * Executa {@code calls} consumindo uma permissão de {@code rateLimiter}
+     * por chamada que de fato chega à API (acertos de espelho e cache não
+     * contam). Vale para as chamadas feitas na thread corrente.
+     */
+    public <T> T rateLimited(RateLimiter rateLimiter, Supplier<T> calls) {
+        RateLimiter previous = RATE_LIMITER.get();
+        RATE_LIMITER.set(rateLimiter);
         try {
-            return restTemplate.getForObject(url, FipePriceResponseDTO.class);
-        } catch (Exception e) {
-            return null;
+            return calls.get();
+        } finally {
+            if (previous != null) {
+                RATE_LIMITER.set(previous);
+            } else {
+                RATE_LIMITER.remove();
+            }
         }
     }
 
     public FipeBrandDTO[] getAllBrands() {
-        String url = fipeApiBaseUrl + "/marcas";
-        return restTemplate.getForObject(url, FipeBrandDTO[].class);
+        FipeBrandCatalog catalog = getBrandCatalog();
+        return catalog != null ? catalog.brands().clone() : null;
     }
 
+    /**
+     * Cópia da resposta em cache; as listas são imutáveis e compartilhadas.
+     */
     public FipeModelResponseDTO getModelsByBrand(String brandCode) {
-        String url = String.format("%s/marcas/%s/modelos", fipeApiBaseUrl, brandCode);
-        return restTemplate.getForObject(url, FipeModelResponseDTO.class);
+        FipeModelCatalog catalog = getModelCatalog(brandCode);
+        if (catalog == null) return null;
+
+        FipeModelResponseDTO response = new FipeModelResponseDTO();
+        response.setModels(catalog.response().getModels());
+        response.setYears(catalog.response().getYears());
+        return response;
+    }
+
+    public List<FipeBrandDTO> searchBrands(String query, int limit) {
+        FipeBrandCatalog catalog = getBrandCatalog();
+        return catalog != null ? catalog.search().search(query, limit) : List.of();
+    }
+
+    public List<FipeModelDTO> searchModels(String brandCode, String query, int limit) {
+        FipeModelCatalog catalog = getModelCatalog(brandCode);
+        return catalog != null ? catalog.search().search(query, limit) : List.of();
+    }
+
+    /**
+     * Busca livre "marca modelo" (ex.: "volvo fh 54"): os primeiros tokens
+     * que casam com uma marca escolhem até {@value #SEARCH_BRANDS} marcas, e o
+     * restante da consulta é buscado nos modelos de cada uma.
+     */
+    public List<FipeSearchResultDTO> search(String query, int limit) {
+        FipeBrandCatalog brands = getBrandCatalog();
+        List<String> tokens = FipeSearchIndex.tokenize(query);
+        if (brands == null || tokens.isEmpty()) return List.of();
+
+        for (int split = Math.min(tokens.size(), SEARCH_BRAND_TOKENS); split > 0; split--) {
+            List<FipeSearchIndex.Match<FipeBrandDTO>> brandMatches =
+                    brands.search().match(String.join(" ", tokens.subList(0, split)), SEARCH_BRANDS);
+            if (brandMatches.isEmpty()) continue;
+
+            String modelQuery = String.join(" ", tokens.subList(split, tokens.size()));
+            List<FipeSearchResultDTO> results = new ArrayList<>();
+            for (FipeSearchIndex.Match<FipeBrandDTO> brand : brandMatches) {
+                FipeModelCatalog models = getModelCatalog(brand.item().getCode());
+                if (models == null) continue;
+                if (modelQuery.isEmpty()) {
+                    List<FipeModelDTO> all = models.response().getModels();
+                    all.stream().limit(limit).forEach(model -> results.add(result(brand, model, 0)));
+                } else {
+                    models.search().match(modelQuery, limit).forEach(model -> results.add(result(brand, model.item(), model.score())));
+                }
+            }
+            return results.stream()
+                    .sorted(Comparator.comparingInt(FipeSearchResultDTO::getScore).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+        return List.of();
+    }
+
+    public List<FipeCacheStatsDTO> getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Versão do catálogo servido: o mês de referência da fonte consultada
+     * primeiro (espelho, se carregado; senão o cache), ou {@code null} se
+     * ainda não for conhecido.
+     */
+    public String getCatalogVersion() {
+        return mirror.isLoaded() ? mirror.getReferenceMonth() : cache.getReferenceMonth();
+    }
+
+    public String getReferenceMonth() {
+        String referenceMonth = cache.getReferenceMonth();
+        return referenceMonth != null ? referenceMonth : mirror.getReferenceMonth();
+    }
+
+    // Chamadas diretas à API, sem cache nem espelho (usadas na atualização do espelho)
+
+    public FipeBrandDTO[] fetchBrands() {
+        return fetch(BRANDS_URI, FipeBrandDTO[].class);
+    }
+
+    public FipeModelResponseDTO fetchModels(String brandCode) {
+        return fetch(MODELS_URI, FipeModelResponseDTO.class, brandCode);
+    }
+
+    public FipeYearDTO[] fetchYears(String brandCode, String modelCode) {
+        return fetch(YEARS_URI, FipeYearDTO[].class, brandCode, modelCode);
+    }
+
+    public FipePriceResponseDTO fetchPrice(String brandCode, String modelCode, String yearCode) {
+        return fetch(PRICE_URI, FipePriceResponseDTO.class, brandCode, modelCode, yearCode);
+    }
+
+    public boolean isDegraded() {
+        return circuitBreaker.getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    public void probe() {
+        if (!isDegraded()) return;
+
+        try {
+            FipeBrandCatalog catalog = FipeBrandCatalog.of(fetch(BRANDS_URI, FipeBrandDTO[].class));
+            if (catalog != null) cache.refreshBrands(FipePaths.BRANDS, catalog);
+        } catch (FipeUnavailableException ignored) {
+            // o circuito continua aberto até a próxima sonda
+        }
+    }
+
+    public long getCoalescedCalls() {
+        return cache.getCoalescedCalls();
+    }
+
+    public int getAvailableCalls() {
+        return bulkhead.availablePermits();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    private FipeBrandCatalog getBrandCatalog() {
+        return observe("brands", cache::brands, FipePaths.BRANDS, () -> FipeBrandCatalog.of(fetch(BRANDS_URI, FipeBrandDTO[].class)));
+    }
+
+    private FipeModelCatalog getModelCatalog(String brandCode) {
+        String path = FipePaths.models(brandCode);
+        return observe("models", cache::models, path, () -> FipeModelCatalog.of(fetch(MODELS_URI, FipeModelResponseDTO.class, brandCode)));
+    }
+
+    /**
+     * Mede a consulta ao catálogo: {@code cache} indica se o dado veio do
+     * espelho local, do cache (hit) ou exigiu chamada à API (miss), e
+     * {@code outcome} se veio da API, do último valor conhecido (stale) ou não
+     * existe na FIPE.
+     */
+    private <V> V observe(String operation, BiFunction<String, Supplier<V>, V> region, String path, Supplier<V> loader) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String source = "hit";
+        boolean[] miss = {false};
+        boolean[] fresh = {false};
+        String outcome = "error";
+        try {
+            V value = mirror.isLoaded() ? mirror.get(path) : null;
+            if (value != null || (mirror.isLoaded() && mirror.isOffline())) {
+                source = "mirror";
+            } else {
+                value = region.apply(path, () -> {
+                    miss[0] = true;
+                    V response = loader.get();
+                    fresh[0] = true;
+                    return response;
+                });
+                if (miss[0]) source = "miss";
+            }
+            outcome = value == null ? "not_found" : miss[0] && !fresh[0] ? "stale" : "success";
+            return value;
+        } catch (FipeUnavailableException e) {
+            if (miss[0]) source = "miss";
+            outcome = "unavailable";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("fipe.client.lookups")
+                    .description("Consultas ao catálogo FIPE (espelho + cache + API)")
+                    .tag("operation", operation)
+                    .tag("cache", source)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private <T> T fetch(String uriTemplate, Class<T> responseType, Object... uriVariables) {
+        RateLimiter rateLimiter = RATE_LIMITER.get();
+        if (rateLimiter != null && !rateLimiter.acquirePermission()) {
+            throw new FipeUnavailableException("Limite de taxa de chamadas à FIPE esgotado.");
+        }
+
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new FipeUnavailableException("Limite de chamadas simultâneas à FIPE atingido.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FipeUnavailableException("Chamada à FIPE interrompida.", e);
+        }
+
+        try {
+            return circuitBreaker.executeSupplier(
+                    () -> restTemplate.getForObject(fipeApiBaseUrl + uriTemplate, responseType, uriVariables));
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                throw new FipeUnavailableException("FIPE limitou a taxa de requisições.", e);
+            }
+            return null;
+        } catch (CallNotPermittedException e) {
+            throw new FipeUnavailableException("FIPE indisponível no momento.", e);
+        } catch (RestClientException e) {
+            throw new FipeUnavailableException("Falha ao consultar a FIPE: " + e.getMessage(), e);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private static FipeSearchResultDTO result(FipeSearchIndex.Match<FipeBrandDTO> brand, FipeModelDTO model, int modelScore) {
+        return new FipeSearchResultDTO(brand.item().getCode(), brand.item().getName(),
+                model.getCode(), model.getName(), brand.score() + modelScore);
     }
 }
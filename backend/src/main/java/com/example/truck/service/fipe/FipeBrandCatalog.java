@@ -0,0 +1,15 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeBrandDTO;
+
+import java.util.List;
+
+public record FipeBrandCatalog(FipeBrandDTO[] brands, FipeNameIndex index, FipeSearchIndex<FipeBrandDTO> search) {
+
+    public static FipeBrandCatalog of(FipeBrandDTO[] brands) {
+        if (brands == null) return null;
+        List<FipeBrandDTO> list = List.of(brands);
+        return new FipeBrandCatalog(brands, FipeNameIndex.of(list, FipeBrandDTO::getName, FipeBrandDTO::getCode),
+                FipeSearchIndex.of(list, FipeBrandDTO::getName));
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeCacheStatsDTO;
+import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import com.example.truck.dto.fipe.FipeYearDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Cache local do catálogo FIPE, indexado pelo path da URL consultada.
+ * Marcas, modelos e anos expiram por TTL; preços também são descartados
+ * quando a FIPE publica um novo mês de referência. A última resposta boa de
+ * cada path é mantida à parte e servida quando a FIPE está indisponível.
+ * Consultas simultâneas ao mesmo path compartilham uma única chamada à API.
+ */
+@Component
+public class FipeCatalogCache {
+
+    private final Cache<String, FipeBrandCatalog> brands;
+    private final Cache<String, FipeModelCatalog> models;
+    private final Cache<String, List<FipeYearDTO>> years;
+    private final Cache<String, FipePriceResponseDTO> prices;
+    private final Cache<String, Object> lastKnownGood;
+    private final FipeSingleFlight singleFlight = new FipeSingleFlight();
+
+    private final AtomicReference<String> referenceMonth = new AtomicReference<>();
+    private final AtomicLong priceInvalidations = new AtomicLong();
+
+    public FipeCatalogCache(@Value("${fipe.cache.catalog.max-size:2000}") long catalogMaxSize,
+                            @Value("${fipe.cache.catalog.ttl:6h}") Duration catalogTtl,
+                            @Value("${fipe.cache.price.max-size:20000}") long priceMaxSize,
+                            @Value("${fipe.cache.price.ttl:24h}") Duration priceTtl,
+                            @Value("${fipe.cache.stale.max-size:50000}") long staleMaxSize,
+                            @Value("${fipe.cache.stale.ttl:31d}") Duration staleTtl) {
+        this.brands = newCache(1, catalogTtl);
+        this.models = newCache(catalogMaxSize, catalogTtl);
+        this.years = newCache(catalogMaxSize, catalogTtl);
+        this.prices = newCache(priceMaxSize, priceTtl);
+        this.lastKnownGood = newCache(staleMaxSize, staleTtl);
+    }
+
+    public FipeBrandCatalog brands(String path, Supplier<FipeBrandCatalog> loader) {
+        return lookup(brands, path, loader);
+    }
+
+    public FipeModelCatalog models(String path, Supplier<FipeModelCatalog> loader) {
+        return lookup(models, path, loader);
+    }
+
+    public List<FipeYearDTO> years(String path, Supplier<List<FipeYearDTO>> loader) {
+        return lookup(years, path, loader);
+    }
+
+    /**
+     * Indica, sem afetar as estatísticas, se a lista de anos do path já está em cache.
+     */
+    public boolean hasYears(String path) {
+        return years.asMap().containsKey(path);
+    }
+
+    public FipePriceResponseDTO price(String path, Supplier<FipePriceResponseDTO> loader) {
+        FipePriceResponseDTO cached = prices.getIfPresent(path);
+        if (cached != null) return cached;
+
+        try {
+            return singleFlight.execute(path, () -> {
+                FipePriceResponseDTO current = prices.asMap().get(path);
+                if (current != null) return current;
+
+                FipePriceResponseDTO loaded = loader.get();
+                if (loaded != null) {
+                    observeReferenceMonth(loaded.getReferenceMonth());
+                    prices.put(path, loaded);
+                    lastKnownGood.put(path, loaded);
+                }
+                return loaded;
+            });
+        } catch (FipeUnavailableException e) {
+            return staleOrThrow(path, e);
+        }
+    }
+
+    /**
+     * Substitui o preço em cache por uma resposta obtida direto da API.
+     */
+    public void refreshPrice(String path, FipePriceResponseDTO price) {
+        observeReferenceMonth(price.getReferenceMonth());
+        prices.put(path, price);
+        lastKnownGood.put(path, price);
+    }
+
+    public void refreshBrands(String path, FipeBrandCatalog catalog) {
+        brands.put(path, catalog);
+        lastKnownGood.put(path, catalog);
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, brands, "fipe.brands");
+        CaffeineCacheMetrics.monitor(registry, models, "fipe.models");
+        CaffeineCacheMetrics.monitor(registry, years, "fipe.years");
+        CaffeineCacheMetrics.monitor(registry, prices, "fipe.prices");
+        CaffeineCacheMetrics.monitor(registry, lastKnownGood, "fipe.lastKnownGood");
+    }
+
+    public long getCoalescedCalls() {
+        return singleFlight.coalescedCount();
+    }
+
+    public String getReferenceMonth() {
+        return referenceMonth.get();
+    }
+
+    public void invalidateAll() {
+        brands.invalidateAll();
+        models.invalidateAll();
+        years.invalidateAll();
+        prices.invalidateAll();
+    }
+
+    public List<FipeCacheStatsDTO> stats() {
+        return List.of(
+                toStats("brands", brands, 0),
+                toStats("models", models, 0),
+                toStats("years", years, 0),
+                toStats("prices", prices, priceInvalidations.get()),
+                toStats("lastKnownGood", lastKnownGood, 0)
+        );
+    }
+
+    private void observeReferenceMonth(String month) {
+        if (month == null || month.isBlank()) return;
+
+        String current = month.trim();
+        String previous = referenceMonth.getAndSet(current);
+        if (previous != null && !previous.equals(current)) {
+            prices.invalidateAll();
+            priceInvalidations.incrementAndGet();
+        }
+    }
+
+    private <V> V lookup(Cache<String, V> cache, String path, Supplier<V> loader) {
+        V cached = cache.getIfPresent(path);
+        if (cached != null) return cached;
+
+        try {
+            return singleFlight.execute(path, () -> {
+                V current = cache.asMap().get(path);
+                if (current != null) return current;
+
+                V loaded = loader.get();
+                if (loaded != null) {
+                    cache.put(path, loaded);
+                    lastKnownGood.put(path, loaded);
+                }
+                return loaded;
+            });
+        } catch (FipeUnavailableException e) {
+            return staleOrThrow(path, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V staleOrThrow(String path, FipeUnavailableException failure) {
+        V stale = (V) lastKnownGood.getIfPresent(path);
+        if (stale == null) throw failure;
+
+        FipeStaleness.markStale();
+        return stale;
+    }
+
+    private static <V> Cache<String, V> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private static FipeCacheStatsDTO toStats(String name, Cache<String, ?> cache, long invalidations) {
+        CacheStats stats = cache.stats();
+        return new FipeCacheStatsDTO(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), invalidations, stats.hitRate());
+    }
+}
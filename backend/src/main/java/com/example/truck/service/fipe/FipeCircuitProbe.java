@@ -0,0 +1,19 @@
+package com.example.truck.service.fipe;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FipeCircuitProbe {
+
+    private final FipeApiClient fipeApiClient;
+
+    public FipeCircuitProbe(FipeApiClient fipeApiClient) {
+        this.fipeApiClient = fipeApiClient;
+    }
+
+    @Scheduled(fixedDelayString = "${fipe.circuit-breaker.probe-interval:10s}")
+    public void probe() {
+        fipeApiClient.probe();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.dto.fipe.FipeSnapshotDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Espelho em memória do snapshot FIPE, indexado pelos mesmos paths do cache.
+ * O snapshot inteiro é trocado de uma vez; as leituras não usam lock.
+ * Em modo offline, o espelho carregado é a única fonte: o que não está nele
+ * é tratado como inexistente, sem chamada à API.
+ */
+@Component
+public class FipeMirror {
+
+    private final boolean offline;
+
+    private volatile Map<String, Object> entries = Map.of();
+    private volatile FipeSnapshotDTO snapshot;
+
+    public FipeMirror(@Value("${fipe.mirror.offline:false}") boolean offline) {
+        this.offline = offline;
+    }
+
+    public void load(FipeSnapshotDTO snapshot) {
+        Map<String, Object> loaded = new HashMap<>();
+        if (snapshot.getBrands() != null) {
+            loaded.put(FipePaths.BRANDS, FipeBrandCatalog.of(snapshot.getBrands().toArray(FipeBrandDTO[]::new)));
+        }
+        if (snapshot.getModels() != null) {
+            snapshot.getModels().forEach((brand, models) -> loaded.put(FipePaths.models(brand), FipeModelCatalog.of(models)));
+        }
+        if (snapshot.getYears() != null) {
+            snapshot.getYears().forEach((key, years) -> {
+                String[] codes = key.split("/");
+                loaded.put(FipePaths.years(codes[0], codes[1]), List.copyOf(years));
+            });
+        }
+        if (snapshot.getPrices() != null) {
+            snapshot.getPrices().forEach((key, price) -> {
+                String[] codes = key.split("/");
+                loaded.put(FipePaths.price(codes[0], codes[1], codes[2]), price);
+            });
+        }
+
+        this.entries = Map.copyOf(loaded);
+        this.snapshot = snapshot;
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public FipeSnapshotDTO getSnapshot() {
+        return snapshot;
+    }
+
+    public String getReferenceMonth() {
+        FipeSnapshotDTO current = snapshot;
+        return current != null ? current.getReferenceMonth() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    <V> V get(String path) {
+        return (V) entries.get(path);
+    }
+}
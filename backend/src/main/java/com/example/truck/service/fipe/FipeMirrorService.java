@@ -0,0 +1,368 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.dto.fipe.FipeMirrorStatusDTO;
+import com.example.truck.dto.fipe.FipeModelDTO;
+import com.example.truck.dto.fipe.FipeModelResponseDTO;
+import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import com.example.truck.dto.fipe.FipeSnapshotDTO;
+import com.example.truck.dto.fipe.FipeYearDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantém o espelho local do catálogo FIPE: carrega o snapshot (JSON gzip) na
+ * inicialização e o recria percorrendo marcas → modelos → anos → preços.
+ * Na atualização, preços de combinações já conhecidas são reaproveitados
+ * enquanto o mês de referência não muda. A cópia ocupa no máximo
+ * {@code fipe.mirror.parallelism} threads do {@code fipeExecutor} (as chaves
+ * são enviadas em janelas desse tamanho), e, se falhar, o que já foi copiado
+ * é gravado ao lado do snapshot e retomado na próxima atualização.
+ */
+@Service
+public class FipeMirrorService {
+
+    private static final Logger log = LoggerFactory.getLogger(FipeMirrorService.class);
+
+    private final FipeApiClient fipeApiClient;
+    private final FipeMirror mirror;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService fipeExecutor;
+    private final RateLimiter rateLimiter;
+    private final int parallelism;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    @Value("${fipe.mirror.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fipe.mirror.path:data/fipe-snapshot.json.gz}")
+    private Path snapshotPath;
+
+    public FipeMirrorService(FipeApiClient fipeApiClient, FipeMirror mirror, ObjectMapper objectMapper,
+                             @Qualifier("fipeExecutor") ExecutorService fipeExecutor,
+                             @Value("${fipe.mirror.rate-limit:20}") int callsPerSecond,
+                             @Value("${fipe.mirror.parallelism:4}") int parallelism) {
+        this.fipeApiClient = fipeApiClient;
+        this.mirror = mirror;
+        this.objectMapper = objectMapper;
+        this.fipeExecutor = fipeExecutor;
+        this.parallelism = parallelism;
+        this.rateLimiter = RateLimiter.of("fipe-mirror", RateLimiterConfig.custom()
+                .limitForPeriod(callsPerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        if (!enabled && !mirror.isOffline()) return;
+
+        FipeSnapshotDTO snapshot = read(snapshotPath);
+        if (snapshot != null) {
+            mirror.load(snapshot);
+            log.info("Espelho FIPE carregado de {} ({})", snapshotPath, mirror.getReferenceMonth());
+            return;
+        }
+        if (!mirror.isOffline()) startRefresh();
+    }
+
+    @Scheduled(cron = "${fipe.mirror.refresh-cron:0 0 5 * * *}")
+    public void refreshIfReferenceMonthChanged() {
+        if (!enabled || mirror.isOffline() || refreshing.get()) return;
+
+        FipeSnapshotDTO current = mirror.getSnapshot();
+        if (current != null && current.getPrices() != null && !current.getPrices().isEmpty()) {
+            try {
+                if (sameMonth(probeMonth(current.getPrices().keySet().iterator().next()), current.getReferenceMonth())) return;
+            } catch (FipeUnavailableException e) {
+                log.warn("Espelho FIPE não verificado: {}", e.getMessage());
+                return;
+            }
+        }
+        startRefresh();
+    }
+
+    public void startRefresh() {
+        if (mirror.isOffline()) {
+            throw new IllegalStateException("Espelho FIPE em modo offline.");
+        }
+        if (!refreshing.compareAndSet(false, true)) {
+            throw new IllegalStateException("Atualização do espelho FIPE já em andamento.");
+        }
+
+        Thread.ofPlatform().name("fipe-mirror").daemon().start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.error("Falha ao atualizar o espelho FIPE; o snapshot anterior foi mantido", e);
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    public FipeMirrorStatusDTO getStatus() {
+        FipeSnapshotDTO snapshot = mirror.getSnapshot();
+        if (snapshot == null) {
+            return new FipeMirrorStatusDTO(false, mirror.isOffline(), refreshing.get(), null, null, 0, 0, 0, 0);
+        }
+        return new FipeMirrorStatusDTO(true, mirror.isOffline(), refreshing.get(), snapshot.getReferenceMonth(),
+                snapshot.getCreatedDate(), size(snapshot.getBrands()), size(snapshot.getModels()),
+                size(snapshot.getYears()), size(snapshot.getPrices()));
+    }
+
+    void refresh() {
+        long started = System.nanoTime();
+        FipeSnapshotDTO previous = mirror.getSnapshot();
+        FipeSnapshotDTO progress = resumable(read(partialPath()));
+
+        Map<String, FipeModelResponseDTO> models = new LinkedHashMap<>(progress.getModels());
+        Map<String, List<FipeYearDTO>> years = new LinkedHashMap<>(progress.getYears());
+        Map<String, FipePriceResponseDTO> prices = new LinkedHashMap<>(progress.getPrices());
+        if (!models.isEmpty()) {
+            log.info("Atualização do espelho FIPE retomada: {} modelos, {} anos, {} preços já copiados",
+                    models.size(), years.size(), prices.size());
+        }
+
+        FipeBrandDTO[] brands;
+        List<String> modelKeys = new ArrayList<>();
+        List<String> priceKeys = new ArrayList<>();
+        try {
+            brands = fipeApiClient.fetchBrands();
+            if (brands == null) throw new FipeUnavailableException("FIPE não retornou marcas.");
+
+            crawl(Arrays.stream(brands).map(FipeBrandDTO::getCode).toList(), models, fipeApiClient::fetchModels);
+
+            models.forEach((brand, response) -> {
+                if (response.getModels() == null) return;
+                for (FipeModelDTO model : response.getModels()) modelKeys.add(brand + '/' + model.getCode());
+            });
+            crawl(modelKeys, years, key -> {
+                String[] codes = key.split("/");
+                FipeYearDTO[] response = fipeApiClient.fetchYears(codes[0], codes[1]);
+                return response != null ? List.of(response) : null;
+            });
+
+            years.forEach((model, list) -> list.forEach(year -> priceKeys.add(model + '/' + year.getCode())));
+            crawlPrices(priceKeys, previous, prices);
+        } catch (RuntimeException e) {
+            writePartial(models, years, prices);
+            throw e;
+        }
+
+        FipeSnapshotDTO snapshot = new FipeSnapshotDTO();
+        snapshot.setCreatedDate(Instant.now());
+        snapshot.setReferenceMonth(referenceMonth(prices));
+        snapshot.setBrands(List.of(brands));
+        snapshot.setModels(models);
+        snapshot.setYears(years);
+        snapshot.setPrices(prices);
+
+        write(snapshot, snapshotPath);
+        mirror.load(snapshot);
+        deletePartial();
+        log.info("Espelho FIPE atualizado em {} s: {} marcas, {} modelos, {} anos, {} preços ({})",
+                Duration.ofNanos(System.nanoTime() - started).toSeconds(), brands.length, modelKeys.size(),
+                priceKeys.size(), prices.size(), snapshot.getReferenceMonth());
+    }
+
+    /**
+     * Progresso de uma atualização anterior que falhou. Preços só são
+     * aproveitados se o mês de referência ainda é o mesmo; se mudou, tudo é
+     * descartado (o catálogo pode ter mudado junto).
+     */
+    private FipeSnapshotDTO resumable(FipeSnapshotDTO partial) {
+        FipeSnapshotDTO progress = new FipeSnapshotDTO();
+        progress.setModels(Map.of());
+        progress.setYears(Map.of());
+        progress.setPrices(Map.of());
+        if (partial == null) return progress;
+
+        Map<String, FipePriceResponseDTO> prices = partial.getPrices() != null ? partial.getPrices() : Map.of();
+        if (!prices.isEmpty()) {
+            if (!sameMonth(probeMonth(prices.keySet().iterator().next()), referenceMonth(prices))) {
+                log.info("Progresso do espelho FIPE descartado: mês de referência mudou");
+                return progress;
+            }
+        }
+        if (partial.getModels() != null) progress.setModels(partial.getModels());
+        if (partial.getYears() != null) progress.setYears(partial.getYears());
+        progress.setPrices(prices);
+        return progress;
+    }
+
+    private void crawlPrices(List<String> keys, FipeSnapshotDTO previous, Map<String, FipePriceResponseDTO> prices) {
+        if (previous != null && previous.getPrices() != null && !keys.isEmpty()) {
+            if (sameMonth(probeMonth(keys.getFirst()), previous.getReferenceMonth())) {
+                for (String key : keys) {
+                    FipePriceResponseDTO known = previous.getPrices().get(key);
+                    if (known != null) prices.putIfAbsent(key, known);
+                }
+            }
+        }
+
+        crawl(keys, prices, key -> {
+            String[] codes = key.split("/");
+            return fipeApiClient.fetchPrice(codes[0], codes[1], codes[2]);
+        });
+    }
+
+    /**
+     * Busca as chaves que ainda não estão em {@code results}, em janelas de
+     * {@code parallelism} chamadas, acrescentando cada resposta a
+     * {@code results}. Uma falha interrompe a cópia depois da janela corrente,
+     * sem perder o que ela já trouxe.
+     */
+    private <V> void crawl(List<String> keys, Map<String, V> results, Function<String, V> fetch) {
+        List<String> pending = keys.stream().filter(key -> !results.containsKey(key)).toList();
+        for (int from = 0; from < pending.size(); from += parallelism) {
+            Map<String, CompletableFuture<V>> calls = new LinkedHashMap<>();
+            for (String key : pending.subList(from, Math.min(from + parallelism, pending.size()))) {
+                calls.put(key, CompletableFuture.supplyAsync(() -> rateLimited(() -> fetch.apply(key)), fipeExecutor));
+            }
+
+            RuntimeException failure = null;
+            for (Map.Entry<String, CompletableFuture<V>> call : calls.entrySet()) {
+                try {
+                    V value = call.getValue().join();
+                    if (value != null) results.put(call.getKey(), value);
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                    }
+                }
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * Mês de referência da tabela atual, lido do preço de {@code priceKey}
+     * (marca/modelo/ano) com o mesmo limite de taxa da cópia.
+     */
+    private Optional<YearMonth> probeMonth(String priceKey) {
+        String[] codes = priceKey.split("/");
+        FipePriceResponseDTO probe = rateLimited(() -> fipeApiClient.fetchPrice(codes[0], codes[1], codes[2]));
+        return probe != null ? FipeReferenceMonth.parse(probe.getReferenceMonth()) : Optional.empty();
+    }
+
+    private static boolean sameMonth(Optional<YearMonth> probed, String referenceMonth) {
+        return probed.isPresent() && probed.equals(FipeReferenceMonth.parse(referenceMonth));
+    }
+
+    private <V> V rateLimited(Supplier<V> call) {
+        if (!rateLimiter.acquirePermission()) {
+            throw new FipeUnavailableException("Limite de taxa do espelho FIPE esgotado.");
+        }
+        return call.get();
+    }
+
+    private void writePartial(Map<String, FipeModelResponseDTO> models, Map<String, List<FipeYearDTO>> years,
+                              Map<String, FipePriceResponseDTO> prices) {
+        if (models.isEmpty()) return;
+
+        FipeSnapshotDTO partial = new FipeSnapshotDTO();
+        partial.setCreatedDate(Instant.now());
+        partial.setReferenceMonth(referenceMonth(prices));
+        partial.setModels(models);
+        partial.setYears(years);
+        partial.setPrices(prices);
+        try {
+            write(partial, partialPath());
+            log.info("Progresso do espelho FIPE gravado: {} modelos, {} anos, {} preços",
+                    models.size(), years.size(), prices.size());
+        } catch (UncheckedIOException e) {
+            log.error("Falha ao gravar o progresso do espelho FIPE", e);
+        }
+    }
+
+    private void deletePartial() {
+        try {
+            Files.deleteIfExists(partialPath());
+        } catch (IOException e) {
+            log.warn("Falha ao remover o progresso do espelho FIPE {}", partialPath(), e);
+        }
+    }
+
+    private Path partialPath() {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + ".partial");
+    }
+
+    private FipeSnapshotDTO read(Path path) {
+        if (!Files.exists(path)) return null;
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            return objectMapper.readValue(in, FipeSnapshotDTO.class);
+        } catch (IOException e) {
+            log.error("Falha ao ler o snapshot FIPE {}", path, e);
+            return null;
+        }
+    }
+
+    private static String referenceMonth(Map<String, FipePriceResponseDTO> prices) {
+        return prices.values().stream()
+                .map(FipePriceResponseDTO::getReferenceMonth)
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void write(FipeSnapshotDTO snapshot, Path path) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "fipe-snapshot", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o snapshot FIPE em " + path, e);
+        }
+    }
+
+    private static int size(Map<?, ?> map) {
+        return map != null ? map.size() : 0;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeModelDTO;
+import com.example.truck.dto.fipe.FipeModelResponseDTO;
+
+import java.util.List;
+import java.util.Objects;
+
+public record FipeModelCatalog(FipeModelResponseDTO response, FipeNameIndex index, FipeSearchIndex<FipeModelDTO> search) {
+
+    /**
+     * Guarda uma cópia da resposta com listas imutáveis, para que quem recebe
+     * o catálogo em cache não consiga alterá-lo.
+     */
+    public static FipeModelCatalog of(FipeModelResponseDTO response) {
+        if (response == null) return null;
+        FipeModelResponseDTO copy = new FipeModelResponseDTO();
+        copy.setModels(immutable(response.getModels()));
+        copy.setYears(immutable(response.getYears()));
+        return new FipeModelCatalog(copy, FipeNameIndex.of(copy.getModels(), FipeModelDTO::getName, FipeModelDTO::getCode),
+                FipeSearchIndex.of(copy.getModels(), FipeModelDTO::getName));
+    }
+
+    private static List<FipeModelDTO> immutable(List<FipeModelDTO> items) {
+        return items != null ? items.stream().filter(Objects::nonNull).toList() : List.of();
+    }
+}
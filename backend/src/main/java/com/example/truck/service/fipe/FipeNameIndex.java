@@ -0,0 +1,104 @@
+package com.example.truck.service.fipe;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Índice imutável nome → código FIPE. A busca tenta primeiro o nome exato
+ * (sem alocação) e só então a forma normalizada (sem acento, caixa ou
+ * espaços repetidos), calculada numa única passada pelos caracteres.
+ * Também conhece os códigos do catálogo, para aceitar código ou nome.
+ */
+public final class FipeNameIndex {
+
+    private final Map<String, String> codeByExactName;
+    private final Map<String, String> codeByNormalizedName;
+    private final Set<String> codes;
+
+    private FipeNameIndex(Map<String, String> codeByExactName, Map<String, String> codeByNormalizedName,
+                          Set<String> codes) {
+        this.codeByExactName = codeByExactName;
+        this.codeByNormalizedName = codeByNormalizedName;
+        this.codes = codes;
+    }
+
+    public static <T> FipeNameIndex of(Collection<T> items, Function<T, String> name, Function<T, String> code) {
+        Map<String, String> exact = new HashMap<>(items.size() * 2);
+        Map<String, String> normalized = new HashMap<>(items.size() * 2);
+        Set<String> codes = new HashSet<>(items.size() * 2);
+        for (T item : items) {
+            String itemName = name.apply(item);
+            String itemCode = code.apply(item);
+            if (itemCode != null) codes.add(itemCode);
+            if (itemName == null || itemCode == null) continue;
+            exact.putIfAbsent(itemName, itemCode);
+            normalized.putIfAbsent(normalize(itemName), itemCode);
+        }
+        return new FipeNameIndex(Map.copyOf(exact), Map.copyOf(normalized), Set.copyOf(codes));
+    }
+
+    public String find(String name) {
+        if (name == null) return null;
+
+        String code = codeByExactName.get(name);
+        return code != null ? code : codeByNormalizedName.get(normalize(name));
+    }
+
+    /**
+     * Código do item: o próprio valor, se for um código do catálogo; senão,
+     * a busca por nome (nomes só com dígitos, como "1620", também são nomes).
+     */
+    public String resolve(String codeOrName) {
+        if (codeOrName == null) return null;
+        return codes.contains(codeOrName) ? codeOrName : find(codeOrName);
+    }
+
+    public int size() {
+        return codeByNormalizedName.size();
+    }
+
+    /**
+     * Remove acentos, passa para minúsculas e reduz cada sequência de espaços
+     * a um só, sem espaços nas pontas. Nomes só com ASCII (o caso comum) não
+     * passam pela decomposição Unicode.
+     */
+    public static String normalize(String name) {
+        String decomposed = isAscii(name) ? name : Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else if (!isMark(c)) {
+                if (pendingSpace) normalized.append(' ');
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7F) return false;
+        }
+        return true;
+    }
+
+    // os mesmos caracteres que \s nas expressões regulares
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.truck.service.fipe;
+
+/**
+ * Paths da API FIPE usados como chave no cache e no espelho local.
+ */
+final class FipePaths {
+
+    static final String BRANDS = "/marcas";
+
+    private FipePaths() {
+    }
+
+    static String models(String brandCode) {
+        return BRANDS + '/' + brandCode + "/modelos";
+    }
+
+    static String years(String brandCode, String modelCode) {
+        return models(brandCode) + '/' + modelCode + "/anos";
+    }
+
+    static String price(String brandCode, String modelCode, String yearCode) {
+        return years(brandCode, modelCode) + '/' + yearCode;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.truck.service.fipe;
+
+import java.math.BigDecimal;
+
+/**
+ * Converte o valor FIPE ("R$ 1.234.567,89") em {@link BigDecimal} numa única
+ * passada: ignora tudo que não é dígito ou vírgula e acumula o valor não
+ * escalado num long, sem regex nem strings intermediárias.
+ */
+public final class FipePriceParser {
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private FipePriceParser() {
+    }
+
+    public static BigDecimal parse(String price) {
+        if (price == null) throw new NumberFormatException("Preço FIPE ausente.");
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean decimal = false;
+
+        for (int i = 0; i < price.length(); i++) {
+            char c = price.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_LONG_DIGITS) return parseSlow(price);
+                unscaled = unscaled * 10 + (c - '0');
+                if (decimal) scale++;
+            } else if (c == ',') {
+                if (decimal) throw new NumberFormatException("Preço FIPE inválido: " + price);
+                decimal = true;
+            }
+        }
+
+        if (digits == 0) throw new NumberFormatException("Preço FIPE inválido: " + price);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static BigDecimal parseSlow(String price) {
+        StringBuilder number = new StringBuilder(price.length());
+        for (int i = 0; i < price.length(); i++) {
+            char c = price.charAt(i);
+            if (c >= '0' && c <= '9') number.append(c);
+            else if (c == ',') number.append('.');
+        }
+        return new BigDecimal(number.toString());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.truck.service.fipe;
+
+import java.time.Month;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Converte o {@code MesReferencia} da FIPE ("outubro de 2025") em {@link YearMonth}.
+ */
+public final class FipeReferenceMonth {
+
+    private static final Map<String, Month> MONTHS = Map.ofEntries(
+            Map.entry("janeiro", Month.JANUARY),
+            Map.entry("fevereiro", Month.FEBRUARY),
+            Map.entry("marco", Month.MARCH),
+            Map.entry("abril", Month.APRIL),
+            Map.entry("maio", Month.MAY),
+            Map.entry("junho", Month.JUNE),
+            Map.entry("julho", Month.JULY),
+            Map.entry("agosto", Month.AUGUST),
+            Map.entry("setembro", Month.SEPTEMBER),
+            Map.entry("outubro", Month.OCTOBER),
+            Map.entry("novembro", Month.NOVEMBER),
+            Map.entry("dezembro", Month.DECEMBER)
+    );
+
+    private FipeReferenceMonth() {
+    }
+
+    public static Optional<YearMonth> parse(String referenceMonth) {
+        if (referenceMonth == null || referenceMonth.isBlank()) return Optional.empty();
+
+        String[] parts = FipeNameIndex.normalize(referenceMonth).split(" ");
+        if (parts.length != 3 || !"de".equals(parts[1])) return Optional.empty();
+
+        Month month = MONTHS.get(parts[0]);
+        if (month == null) return Optional.empty();
+        try {
+            return Optional.of(YearMonth.of(Integer.parseInt(parts[2]), month));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
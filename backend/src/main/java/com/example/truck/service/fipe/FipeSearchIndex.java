@@ -0,0 +1,184 @@
+package com.example.truck.service.fipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Índice imutável de busca textual sobre um catálogo FIPE (autocomplete).
+ * Os nomes são normalizados como em {@link FipeNameIndex} e quebrados em
+ * tokens alfanuméricos; o vocabulário fica ordenado, de modo que a busca por
+ * prefixo é uma busca binária seguida de varredura do intervalo (como num
+ * trie). Tokens da consulta com 4+ caracteres também aceitam um erro de
+ * digitação (inserção, remoção, troca ou transposição) contra o token ou seu
+ * prefixo. Todos os tokens da consulta precisam casar com algum token do nome.
+ */
+public final class FipeSearchIndex<T> {
+
+    private static final int EXACT = 4;
+    private static final int PREFIX = 3;
+    private static final int TYPO = 2;
+    private static final int TYPO_PREFIX = 1;
+    private static final int MIN_TYPO_LENGTH = 4;
+
+    private final List<T> items;
+    private final String[] names;
+    private final int[] tokenCounts;
+    private final String[] vocabulary;
+    private final int[][] postings;
+
+    public record Match<T>(T item, int score) {
+    }
+
+    private FipeSearchIndex(List<T> items, String[] names, int[] tokenCounts, String[] vocabulary, int[][] postings) {
+        this.items = items;
+        this.names = names;
+        this.tokenCounts = tokenCounts;
+        this.vocabulary = vocabulary;
+        this.postings = postings;
+    }
+
+    public static <T> FipeSearchIndex<T> of(Collection<T> catalog, Function<T, String> name) {
+        List<T> items = new ArrayList<>(catalog.size());
+        List<String> names = new ArrayList<>(catalog.size());
+        List<Integer> tokenCounts = new ArrayList<>(catalog.size());
+        Map<String, List<Integer>> itemsByToken = new HashMap<>();
+
+        for (T item : catalog) {
+            String itemName = name.apply(item);
+            if (itemName == null) continue;
+
+            int id = items.size();
+            List<String> tokens = tokenize(itemName);
+            items.add(item);
+            names.add(FipeNameIndex.normalize(itemName));
+            tokenCounts.add(tokens.size());
+            for (String token : new LinkedHashSet<>(tokens)) {
+                itemsByToken.computeIfAbsent(token, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        String[] vocabulary = itemsByToken.keySet().toArray(String[]::new);
+        Arrays.sort(vocabulary);
+        int[][] postings = new int[vocabulary.length][];
+        for (int i = 0; i < vocabulary.length; i++) {
+            postings[i] = itemsByToken.get(vocabulary[i]).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new FipeSearchIndex<>(List.copyOf(items), names.toArray(String[]::new),
+                tokenCounts.stream().mapToInt(Integer::intValue).toArray(), vocabulary, postings);
+    }
+
+    public List<T> search(String query, int limit) {
+        return match(query, limit).stream().map(Match::item).toList();
+    }
+
+    /**
+     * Os {@code limit} melhores itens para a consulta, do maior para o menor
+     * score; em caso de empate vence o nome com menos tokens (mais específico).
+     */
+    public List<Match<T>> match(String query, int limit) {
+        List<String> queryTokens = query == null ? List.of() : tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) return List.of();
+
+        int[] total = new int[items.size()];
+        int[] best = new int[items.size()];
+        for (String queryToken : queryTokens) {
+            Arrays.fill(best, 0);
+            collectPrefixMatches(queryToken, best);
+            if (queryToken.length() >= MIN_TYPO_LENGTH) collectTypoMatches(queryToken, best);
+
+            for (int id = 0; id < total.length; id++) {
+                total[id] = best[id] == 0 || total[id] < 0 ? -1 : total[id] + best[id];
+            }
+        }
+
+        List<Integer> matched = new ArrayList<>();
+        for (int id = 0; id < total.length; id++) {
+            if (total[id] > 0) matched.add(id);
+        }
+        return matched.stream()
+                .sorted(Comparator.<Integer>comparingInt(id -> -total[id])
+                        .thenComparingInt(id -> tokenCounts[id])
+                        .thenComparing(id -> names[id]))
+                .limit(limit)
+                .map(id -> new Match<>(items.get(id), total[id]))
+                .toList();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public static List<String> tokenize(String text) {
+        String normalized = FipeNameIndex.normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean alphanumeric = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (alphanumeric && start < 0) {
+                start = i;
+            } else if (!alphanumeric && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void collectPrefixMatches(String queryToken, int[] best) {
+        int from = Arrays.binarySearch(vocabulary, queryToken);
+        if (from < 0) from = -from - 1;
+        for (int t = from; t < vocabulary.length && vocabulary[t].startsWith(queryToken); t++) {
+            raise(best, postings[t], vocabulary[t].length() == queryToken.length() ? EXACT : PREFIX);
+        }
+    }
+
+    private void collectTypoMatches(String queryToken, int[] best) {
+        for (int t = 0; t < vocabulary.length; t++) {
+            String token = vocabulary[t];
+            if (token.length() < queryToken.length() - 1) continue;
+
+            if (withinOneEdit(queryToken, token)) {
+                raise(best, postings[t], TYPO);
+            } else if (token.length() > queryToken.length()
+                    && withinOneEdit(queryToken, token.substring(0, queryToken.length()))) {
+                raise(best, postings[t], TYPO_PREFIX);
+            }
+        }
+    }
+
+    private static void raise(int[] best, int[] ids, int score) {
+        for (int id : ids) {
+            if (best[id] < score) best[id] = score;
+        }
+    }
+
+    /**
+     * Distância de Damerau-Levenshtein (restrita) de no máximo 1.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+
+        int i = 0;
+        while (i < la && i < lb && a.charAt(i) == b.charAt(i)) i++;
+        if (i == la && i == lb) return true;
+
+        if (la == lb) {
+            // substituição ou transposição de vizinhos
+            if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) return true;
+            return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                    && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+        }
+        return la > lb
+                ? a.regionMatches(i + 1, b, i, lb - i)
+                : b.regionMatches(i + 1, a, i, la - i);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.truck.service.fipe;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Marca a requisição HTTP corrente quando algum dado FIPE foi servido a
+ * partir da última resposta conhecida, e não da API.
+ */
+public final class FipeStaleness {
+
+    private static final String ATTRIBUTE = FipeStaleness.class.getName() + ".STALE";
+
+    private FipeStaleness() {
+    }
+
+    static void markStale() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    public static boolean isStale(RequestAttributes attributes) {
+        return attributes != null && Boolean.TRUE.equals(attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.truck.service.fipe;
+
+public class FipeUnavailableException extends RuntimeException {
+
+    public FipeUnavailableException(String message) {
+        super(message);
+    }
+
+    public FipeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.truck.validation;
+
+import com.example.truck.entity.LicensePlate;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class LicensePlateValidator implements ConstraintValidator<ValidLicensePlate, String> {
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return value == null || LicensePlate.isValid(value);
+    }
+}
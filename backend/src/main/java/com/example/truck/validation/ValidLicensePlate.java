@@ -0,0 +1,27 @@
+package com.example.truck.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Placa no formato antigo (ABC1234) ou Mercosul (ABC1D23). Valores nulos
+ * são aceitos; a obrigatoriedade fica a cargo de {@code @NotBlank}.
+ */
+@Documented
+@Constraint(validatedBy = LicensePlateValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidLicensePlate {
+
+    String message() default "Placa inválida (use ABC1234 ou ABC1D23)";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
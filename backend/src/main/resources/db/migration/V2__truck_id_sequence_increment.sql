@@ -0,0 +1 @@
+ALTER SEQUENCE truck_id_seq INCREMENT BY 50;
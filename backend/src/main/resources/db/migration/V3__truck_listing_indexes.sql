@@ -0,0 +1,4 @@
+CREATE INDEX idx_truck_updated_date_id ON truck (updated_date DESC, id DESC);
+CREATE INDEX idx_truck_brand_model ON truck (lower(brand), lower(model), id);
+CREATE INDEX idx_truck_manufacturing_year ON truck (manufacturing_year, id);
+CREATE INDEX idx_truck_fipe_price ON truck (fipe_price, id);
@@ -0,0 +1,4 @@
+ALTER TABLE truck ADD COLUMN valuation_status VARCHAR(20) NOT NULL DEFAULT 'COMPLETED';
+ALTER TABLE truck ADD COLUMN valuation_message VARCHAR(255);
+
+CREATE INDEX idx_truck_valuation_pending ON truck (id) WHERE valuation_status = 'PENDING';
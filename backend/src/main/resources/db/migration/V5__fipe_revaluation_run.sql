@@ -0,0 +1,14 @@
+CREATE TABLE fipe_revaluation_run (
+    id BIGSERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    last_truck_id BIGINT NOT NULL DEFAULT 0,
+    processed INTEGER NOT NULL DEFAULT 0,
+    updated INTEGER NOT NULL DEFAULT 0,
+    failed INTEGER NOT NULL DEFAULT 0,
+    reference_month VARCHAR(40),
+    started_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_date TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_fipe_revaluation_run_status ON fipe_revaluation_run (status, id DESC);
@@ -0,0 +1,10 @@
+CREATE TABLE truck_price_history (
+    id BIGSERIAL PRIMARY KEY,
+    truck_id BIGINT NOT NULL REFERENCES truck (id) ON DELETE CASCADE,
+    reference_month DATE NOT NULL,
+    fipe_price DECIMAL(12,2) NOT NULL,
+    recorded_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_truck_price_history_month UNIQUE (truck_id, reference_month)
+);
+
+CREATE INDEX idx_truck_price_history_month ON truck_price_history (reference_month, truck_id) INCLUDE (fipe_price);
@@ -0,0 +1 @@
+ALTER TABLE truck ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
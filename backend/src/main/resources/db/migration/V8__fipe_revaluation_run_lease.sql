@@ -0,0 +1,5 @@
+ALTER TABLE fipe_revaluation_run ADD COLUMN claimed_by VARCHAR(100);
+ALTER TABLE fipe_revaluation_run ADD COLUMN lease_until TIMESTAMP WITH TIME ZONE;
+
+-- no máximo uma execução em andamento entre todas as instâncias
+CREATE UNIQUE INDEX uq_fipe_revaluation_run_running ON fipe_revaluation_run (status) WHERE status = 'RUNNING';
@@ -0,0 +1,81 @@
+package com.example.truck.controller;
+
+import com.example.truck.dto.TruckPageDTO;
+import com.example.truck.dto.TruckSummaryDTO;
+import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.entity.TruckEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2025, 10, 1, 12, 0, 0, 123_456_000);
+
+    @Test
+    void truck_isWeak_andStableWhileNotUpdated() {
+        String etag = ETags.of(truck(1L, 3L));
+
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+        assertEquals(etag, ETags.of(truck(1L, 3L)));
+    }
+
+    @Test
+    void truck_changes_whenVersionOrIdChanges() {
+        String etag = ETags.of(truck(1L, 3L));
+
+        assertNotEquals(etag, ETags.of(truck(1L, 4L)));
+        assertNotEquals(etag, ETags.of(truck(2L, 3L)));
+    }
+
+    @Test
+    void page_changes_whenAnyItemIsUpdated_orCursorChanges() {
+        TruckPageDTO page = new TruckPageDTO(List.of(summary(1L, UPDATED), summary(2L, UPDATED)), null);
+        String etag = ETags.of(page);
+
+        assertEquals(etag, ETags.of(new TruckPageDTO(List.of(summary(1L, UPDATED), summary(2L, UPDATED)), null)));
+        assertNotEquals(etag, ETags.of(new TruckPageDTO(List.of(summary(1L, UPDATED), summary(2L, UPDATED.plusSeconds(1))), null)));
+        assertNotEquals(etag, ETags.of(new TruckPageDTO(List.of(summary(2L, UPDATED), summary(1L, UPDATED)), null)));
+        assertNotEquals(etag, ETags.of(new TruckPageDTO(page.getItems(), "cursor")));
+    }
+
+    @Test
+    void catalog_followsContent() {
+        String etag = ETags.of(List.of(brand("1", "Volvo"), brand("2", "Scania")));
+
+        assertEquals(etag, ETags.of(List.of(brand("1", "Volvo"), brand("2", "Scania"))));
+        assertNotEquals(etag, ETags.of(List.of(brand("1", "Volvo"), brand("2", "SCANIA"))));
+        assertNotEquals(etag, ETags.of(List.of(brand("1", "Volvo"))));
+    }
+
+    @Test
+    void catalog_followsReferenceMonth_withoutReadingContent() {
+        String etag = ETags.ofCatalog("novembro de 2025");
+
+        assertTrue(etag.startsWith("W/\"fipe-") && etag.endsWith("\""));
+        assertEquals(etag, ETags.ofCatalog("novembro de 2025"));
+        assertNotEquals(etag, ETags.ofCatalog("dezembro de 2025"));
+    }
+
+    private static TruckEntity truck(Long id, Long version) {
+        TruckEntity truck = new TruckEntity("ABC1234", "Volvo", "FH 540", 2020);
+        truck.setId(id);
+        truck.setVersion(version);
+        truck.setUpdatedDate(UPDATED);
+        return truck;
+    }
+
+    private static TruckSummaryDTO summary(Long id, LocalDateTime updatedDate) {
+        return new TruckSummaryDTO(id, "ABC1234", "Volvo", "FH 540", 2020, null, updatedDate);
+    }
+
+    private static FipeBrandDTO brand(String code, String name) {
+        FipeBrandDTO brand = new FipeBrandDTO();
+        brand.setCode(code);
+        brand.setName(name);
+        return brand;
+    }
+}
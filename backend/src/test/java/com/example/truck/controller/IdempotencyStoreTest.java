@@ -0,0 +1,150 @@
+package com.example.truck.controller;
+
+import com.example.truck.service.fipe.FipeUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final String CLIENT = "client:app-1";
+
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), new ObjectMapper(), 100,
+            Duration.ofHours(1), Duration.ofSeconds(5));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void repeatedKey_returnsStoredResponse_withoutRunningAgain() {
+        ResponseEntity<?> first = store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-1"));
+        ResponseEntity<?> retry = store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-2"));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("truck-1", retry.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void sameKey_onDifferentOperations_isIndependent() {
+        store.execute(CLIENT, "k1", "PUT /api/trucks/1", "body", () -> created("truck-1"));
+        store.execute(CLIENT, "k1", "PUT /api/trucks/2", "body", () -> created("truck-2"));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void sameKey_fromAnotherClient_isIndependent() {
+        store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-1"));
+        ResponseEntity<?> other = store.execute("client:app-2", "k1", "POST /api/trucks", "other body",
+                () -> created("truck-2"));
+
+        assertEquals(2, executions.get());
+        assertEquals("truck-2", other.getBody());
+    }
+
+    @Test
+    void fingerprint_ignoresMapKeyOrder() {
+        store.execute(CLIENT, "k1", "POST /api/trucks", Map.of("brand", "Scania", "model", "R 450"),
+                () -> created("truck-1"));
+        ResponseEntity<?> retry = store.execute(CLIENT, "k1", "POST /api/trucks",
+                Map.of("model", "R 450", "brand", "Scania"), () -> created("truck-2"));
+
+        assertEquals("truck-1", retry.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void client_prefersPrincipal_thenClientIdHeader_thenRemoteAddress() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        assertEquals("addr:10.0.0.7", IdempotencyStore.client(request));
+
+        request.addHeader(IdempotencyStore.CLIENT_HEADER, "app-1");
+        assertEquals("client:app-1", IdempotencyStore.client(request));
+
+        request.setUserPrincipal(() -> "maria");
+        assertEquals("user:maria", IdempotencyStore.client(request));
+    }
+
+    @Test
+    void reusedKey_withAnotherBody_isRejected() {
+        store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-1"));
+
+        ResponseEntity<?> response = store.execute(CLIENT, "k1", "POST /api/trucks", "other body", () -> created("truck-2"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void serverErrors_andExceptions_areNotStored() {
+        store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+        assertThrows(FipeUnavailableException.class, () -> store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> {
+            executions.incrementAndGet();
+            throw new FipeUnavailableException("FIPE indisponível no momento.");
+        }));
+        ResponseEntity<?> response = store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-1"));
+
+        assertEquals(3, executions.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    @Test
+    void concurrentRetry_waitsForTheOriginalRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> original = CompletableFuture.supplyAsync(
+                () -> store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> {
+                    started.countDown();
+                    await(release);
+                    return created("truck-1");
+                }));
+        started.await();
+
+        CompletableFuture<ResponseEntity<?>> retry = CompletableFuture.supplyAsync(
+                () -> store.execute(CLIENT, "k1", "POST /api/trucks", "body", () -> created("truck-2")));
+        release.countDown();
+
+        assertEquals("truck-1", original.get().getBody());
+        assertEquals("truck-1", retry.get().getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void missingKey_alwaysRuns_andInvalidKeyIsRejected() {
+        store.execute(CLIENT, null, "POST /api/trucks", "body", () -> created("truck-1"));
+        store.execute(CLIENT, null, "POST /api/trucks", "body", () -> created("truck-2"));
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                store.execute(CLIENT, " ", "POST /api/trucks", "body", () -> created("truck-3")).getStatusCode());
+    }
+
+    private ResponseEntity<?> created(String body) {
+        executions.incrementAndGet();
+        return new ResponseEntity<>(body, HttpStatus.CREATED);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
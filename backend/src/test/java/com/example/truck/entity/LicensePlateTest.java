@@ -0,0 +1,39 @@
+package com.example.truck.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LicensePlateTest {
+
+    @Test
+    void normalize_stripsSeparators_andUppercases() {
+        assertEquals("ABC1234", LicensePlate.normalize("abc-1234"));
+        assertEquals("ABC1D23", LicensePlate.normalize(" abc 1d23 "));
+        assertEquals("ABC1D23", LicensePlate.normalize("ABC.1D23é"));
+        assertNull(LicensePlate.normalize(null));
+    }
+
+    @Test
+    void normalize_returnsSameInstance_whenAlreadyNormalized() {
+        String plate = "ABC1234";
+
+        assertSame(plate, LicensePlate.normalize(plate));
+    }
+
+    @Test
+    void isValid_acceptsOldAndMercosulFormats() {
+        assertTrue(LicensePlate.isValid("ABC1234"));
+        assertTrue(LicensePlate.isValid("ABC1D23"));
+    }
+
+    @Test
+    void isValid_rejectsOtherShapes() {
+        assertFalse(LicensePlate.isValid("AB-1234"));
+        assertFalse(LicensePlate.isValid("abc1234"));
+        assertFalse(LicensePlate.isValid("ABC12D3"));
+        assertFalse(LicensePlate.isValid("ABC123"));
+        assertFalse(LicensePlate.isValid("ABC12345"));
+        assertFalse(LicensePlate.isValid(null));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.FleetGroupDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetAggregatesTest {
+
+    private final FleetAggregates aggregates = new FleetAggregates();
+
+    @Test
+    void groups_sumCountsAndPrices_andOrderByTotalValue() {
+        aggregates.put(1L, 0, "Volvo", "FH 540", 2020, new BigDecimal("500000.10"));
+        aggregates.put(2L, 0, "volvo ", "FH 540", 2021, new BigDecimal("300000.05"));
+        aggregates.put(3L, 0, "Volvo", "FM 370", 2020, null);
+        aggregates.put(4L, 0, "Scania", "R 450", 2019, new BigDecimal("900000.00"));
+
+        List<FleetGroupDTO> brands = aggregates.groups(FleetGroupBy.BRAND);
+
+        assertEquals(List.of("Scania", "Volvo"), brands.stream().map(FleetGroupDTO::getBrand).toList());
+        FleetGroupDTO volvo = brands.get(1);
+        assertEquals(3, volvo.getTrucks());
+        assertEquals(2, volvo.getPricedTrucks());
+        assertEquals(new BigDecimal("800000.15"), volvo.getTotalValue());
+        assertEquals(new BigDecimal("400000.08"), volvo.getAveragePrice());
+        assertEquals(new BigDecimal("300000.05"), volvo.getMinPrice());
+        assertEquals(new BigDecimal("500000.10"), volvo.getMaxPrice());
+
+        assertEquals(List.of(2019, 2020, 2021),
+                aggregates.groups(FleetGroupBy.YEAR).stream().map(FleetGroupDTO::getManufacturingYear).toList());
+    }
+
+    @Test
+    void put_movesTruckBetweenGroups_andUpdatesMinMax() {
+        aggregates.put(1L, 0, "Volvo", "FH 540", 2020, new BigDecimal("100.00"));
+        aggregates.put(2L, 0, "Volvo", "FH 540", 2020, new BigDecimal("200.00"));
+
+        aggregates.put(2L, 1, "Scania", "R 450", 2020, new BigDecimal("250.00"));
+
+        List<FleetGroupDTO> brands = aggregates.groups(FleetGroupBy.BRAND);
+        FleetGroupDTO volvo = brands.stream().filter(g -> g.getBrand().equals("Volvo")).findFirst().orElseThrow();
+        assertEquals(1, volvo.getTrucks());
+        assertEquals(new BigDecimal("100.00"), volvo.getMaxPrice());
+
+        FleetGroupDTO year = aggregates.groups(FleetGroupBy.YEAR).get(0);
+        assertEquals(2, year.getTrucks());
+        assertEquals(new BigDecimal("350.00"), year.getTotalValue());
+        assertEquals(new BigDecimal("250.00"), year.getMaxPrice());
+    }
+
+    @Test
+    void groups_omitGroupsLeftEmpty() {
+        aggregates.put(1L, 0, "Volvo", "FH 540", 2020, new BigDecimal("100.00"));
+        aggregates.put(1L, 1, "Volvo", "FM 370", 2020, new BigDecimal("100.00"));
+
+        assertEquals(List.of("FM 370"),
+                aggregates.groups(FleetGroupBy.MODEL).stream().map(FleetGroupDTO::getModel).toList());
+    }
+
+    @Test
+    void put_ignoresOlderVersion_andScanDoesNotOverwriteChanges() {
+        aggregates.put(1L, 2, "Volvo", "FH 540", 2020, new BigDecimal("200.00"));
+        aggregates.put(1L, 1, "Volvo", "FH 540", 2020, new BigDecimal("100.00"));
+        aggregates.putIfAbsent(1L, "Volvo", "FH 540", 2020, new BigDecimal("50.00"));
+
+        FleetGroupDTO volvo = aggregates.groups(FleetGroupBy.BRAND).get(0);
+        assertEquals(1, volvo.getTrucks());
+        assertEquals(new BigDecimal("200.00"), volvo.getTotalValue());
+        assertEquals(1, aggregates.size());
+    }
+}
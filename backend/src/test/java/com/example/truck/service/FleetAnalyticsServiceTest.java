@@ -0,0 +1,69 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.FleetGroupDTO;
+import com.example.truck.dto.TruckChangeType;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.repository.TruckRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FleetAnalyticsServiceTest {
+
+    @Mock
+    private TruckRepository truckRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private FleetAnalyticsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FleetAnalyticsService(truckRepository, transactionTemplate, Runnable::run);
+        service.rebuild();
+    }
+
+    @Test
+    void onTruckChanged_usesStateCarriedByTheEvent_withoutQueryingTheDatabase() {
+        service.onTruckChanged(TruckChangedEvent.of(TruckChangeType.CREATED, List.of(truck(1L, 0L, "450000.00"))));
+
+        List<FleetGroupDTO> groups = service.getGroups(FleetGroupBy.BRAND);
+        assertEquals(1, groups.get(0).getTrucks());
+        verify(truckRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void onTruckChanged_reloadsTrucks_whenEventCarriesOnlyIds() {
+        when(truckRepository.findAllById(List.of(1L))).thenReturn(List.of(truck(1L, 3L, "500000.00")));
+
+        service.onTruckChanged(new TruckChangedEvent(TruckChangeType.PRICE_CHANGED, List.of(1L)));
+
+        assertEquals(new BigDecimal("500000.00"), service.getGroups(FleetGroupBy.BRAND).get(0).getTotalValue());
+    }
+
+    @Test
+    void getGroups_failsUntilFirstBuild() {
+        FleetAnalyticsService notBuilt = new FleetAnalyticsService(truckRepository, transactionTemplate, Runnable::run);
+
+        assertThrows(IllegalStateException.class, () -> notBuilt.getGroups(FleetGroupBy.BRAND));
+    }
+
+    private static TruckEntity truck(Long id, Long version, String price) {
+        TruckEntity truck = new TruckEntity("ABC1234", "Scania", "R 450", 2022);
+        truck.setId(id);
+        truck.setVersion(version);
+        truck.setFipePrice(new BigDecimal(price));
+        return truck;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckChangeDTO;
+import com.example.truck.dto.TruckChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruckChangeBusTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Runnable> pendingDeliveries = new ArrayList<>();
+
+    private TruckChangeBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = newBus(Runnable::run, 3, 2);
+    }
+
+    @Test
+    void publish_deliversChangesInOrder_withIncreasingSequence() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, sink);
+
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(1L)));
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.PRICE_CHANGED, List.of(1L, 2L)));
+
+        assertEquals(List.of(TruckChangeType.CREATED, TruckChangeType.PRICE_CHANGED),
+                sink.changes.stream().map(TruckChangeDTO::getType).toList());
+        assertEquals(List.of(1L, 2L), sink.changes.get(1).getTruckIds());
+        assertEquals(sink.changes.get(0).getSequence() + 1, sink.changes.get(1).getSequence());
+    }
+
+    @Test
+    void publish_ignoresEventsWithoutTrucks() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, sink);
+
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of()));
+
+        assertTrue(sink.changes.isEmpty());
+    }
+
+    @Test
+    void subscribe_replaysChangesAfterLastSequence() {
+        RecordingSink first = new RecordingSink();
+        bus.subscribe(null, first);
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(1L)));
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(2L)));
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.UPDATED, List.of(1L)));
+
+        RecordingSink resumed = new RecordingSink();
+        bus.subscribe(first.changes.get(0).getSequence(), resumed);
+
+        assertEquals(first.changes.subList(1, 3), resumed.changes);
+        assertTrue(resumed.resets.isEmpty());
+    }
+
+    @Test
+    void subscribe_sendsReset_whenReplayBufferNoLongerCoversTheGap() {
+        RecordingSink first = new RecordingSink();
+        bus.subscribe(null, first);
+        for (long id = 1; id <= 5; id++) {
+            bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(id)));
+        }
+
+        RecordingSink resumed = new RecordingSink();
+        bus.subscribe(first.changes.get(0).getSequence(), resumed);
+
+        assertTrue(resumed.changes.isEmpty());
+        assertEquals(List.of(first.changes.get(4).getSequence()), resumed.resets);
+    }
+
+    @Test
+    void subscribe_sendsReset_forSequenceFromAnotherRun() {
+        RecordingSink resumed = new RecordingSink();
+        bus.subscribe(42L, resumed);
+
+        assertEquals(1, resumed.resets.size());
+    }
+
+    @Test
+    void publish_dropsSubscriberWhoseQueueIsFull() {
+        bus = newBus(pendingDeliveries::add, 10, 2);
+        RecordingSink slow = new RecordingSink();
+        bus.subscribe(null, slow);
+
+        for (long id = 1; id <= 3; id++) {
+            bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(id)));
+        }
+
+        assertTrue(slow.closed);
+        assertEquals(0, bus.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.get("truck.events.dropped").counter().count());
+
+        RecordingSink resumed = new RecordingSink();
+        bus.subscribe(null, resumed);
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.UPDATED, List.of(1L)));
+        pendingDeliveries.forEach(Runnable::run);
+        assertEquals(1, resumed.changes.size());
+    }
+
+    @Test
+    void failedDelivery_unsubscribes() {
+        RecordingSink broken = new RecordingSink();
+        broken.failing = true;
+        bus.subscribe(null, broken);
+
+        bus.onTruckChanged(new TruckChangedEvent(TruckChangeType.CREATED, List.of(1L)));
+
+        assertTrue(broken.closed);
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    @Test
+    void heartbeat_reachesIdleSubscribers() {
+        RecordingSink sink = new RecordingSink();
+        bus.subscribe(null, sink);
+
+        bus.heartbeat();
+
+        assertEquals(1, sink.heartbeats);
+    }
+
+    private TruckChangeBus newBus(Executor executor, int replaySize, int subscriberBuffer) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new TruckChangeBus(executor, meterRegistry, replaySize, subscriberBuffer, Duration.ofMinutes(1));
+    }
+
+    private static class RecordingSink implements TruckChangeBus.Sink {
+
+        final List<TruckChangeDTO> changes = new ArrayList<>();
+        final List<Long> resets = new ArrayList<>();
+        int heartbeats;
+        boolean failing;
+        boolean closed;
+
+        @Override
+        public void change(TruckChangeDTO change) throws IOException {
+            if (failing) throw new IOException("Broken pipe");
+            changes.add(change);
+        }
+
+        @Override
+        public void reset(long sequence) {
+            resets.add(sequence);
+        }
+
+        @Override
+        public void heartbeat() {
+            heartbeats++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.truck.service;
+
+import com.example.truck.entity.TruckEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruckCsvParserTest {
+
+    @Test
+    void parse_mapsColumnsByHeader() {
+        List<TruckEntity> trucks = TruckCsvParser.parse("""
+                marca;modelo;ano;placa
+                Scania;R 450;2022;ABC1234
+                Volvo;"FH 540; 6x4";2023;XYZ9D87
+                """);
+
+        assertEquals(2, trucks.size());
+        assertEquals("ABC1234", trucks.get(0).getLicensePlate());
+        assertEquals("Scania", trucks.get(0).getBrand());
+        assertEquals(2022, trucks.get(0).getManufacturingYear());
+        assertEquals("FH 540; 6x4", trucks.get(1).getModel());
+    }
+
+    @Test
+    void parse_usesDefaultColumnOrder_withoutHeader() {
+        List<TruckEntity> trucks = TruckCsvParser.parse("ABC1234,Scania,R 450,2022\n\nXYZ9876,Volvo,FH 540,abc\n");
+
+        assertEquals(2, trucks.size());
+        assertEquals("R 450", trucks.get(0).getModel());
+        assertNull(trucks.get(1).getManufacturingYear());
+    }
+
+    @Test
+    void parseRows_keepsTheSourceLineNumber() {
+        List<TruckCsvParser.Row> rows = TruckCsvParser.parseRows("placa,marca,modelo,ano\nABC1234,Scania,R 450,2022\n\nXYZ9876,Volvo,FH 540,2023\n");
+
+        assertEquals(List.of(2, 4), rows.stream().map(TruckCsvParser.Row::line).toList());
+        assertEquals("XYZ9876", rows.get(1).truck().getLicensePlate());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckImportReportDTO;
+import com.example.truck.dto.TruckImportResultDTO;
+import com.example.truck.dto.TruckImportStatus;
+import com.example.truck.entity.TruckEntity;
+import com.example.truck.repository.TruckRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TruckImportServiceTest {
+
+    @Mock
+    private TruckRepository truckRepository;
+
+    @Mock
+    private TruckService truckService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private TruckImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new TruckImportService(truckRepository, truckService, executor,
+                Validation.buildDefaultValidatorFactory().getValidator(), entityManager, transactionManager,
+                eventPublisher, 500, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void importCsv_rejectsDuplicatesAndFipeMisses_reportingTheCsvLine() {
+        when(truckRepository.findExistingLicensePlates(anyCollection())).thenReturn(Set.of("XYZ9876"));
+        when(truckService.resolveFipeValuation("Scania", "R 450", 2022)).thenReturn(valuation("450000.00"));
+        when(truckService.resolveFipeValuation("Volvo", "FH 999", 2023))
+                .thenThrow(new IllegalArgumentException("Modelo não encontrado para a marca especificada."));
+
+        TruckImportReportDTO report = importService.importCsv("""
+                placa,marca,modelo,ano
+                ABC1234,Scania,R 450,2022
+
+                ABC1234,Scania,R 450,2022
+                XYZ9876,Volvo,FH 540,2023
+                DEF5678,Volvo,FH 999,2023
+                """);
+
+        List<TruckImportResultDTO> rows = report.getRows();
+        assertEquals(List.of(2, 4, 5, 6), rows.stream().map(TruckImportResultDTO::getRow).toList());
+        assertEquals(TruckImportStatus.CREATED, rows.get(0).getStatus());
+        assertEquals(TruckImportStatus.DUPLICATE, rows.get(1).getStatus());
+        assertEquals("Placa repetida no lote", rows.get(1).getMessage());
+        assertEquals(TruckImportStatus.DUPLICATE, rows.get(2).getStatus());
+        assertEquals("Placa já cadastrada", rows.get(2).getMessage());
+        assertEquals(TruckImportStatus.FIPE_NOT_FOUND, rows.get(3).getStatus());
+        assertEquals(1, report.getCreated());
+        verify(truckService, never()).resolveFipeValuation("Volvo", "FH 540", 2023);
+    }
+
+    @Test
+    void importTrucks_retriesEachRowInItsOwnTransaction_whenTheChunkFails() {
+        when(truckRepository.findExistingLicensePlates(anyCollection())).thenReturn(Set.of());
+        when(truckService.resolveFipeValuation(anyString(), anyString(), anyInt())).thenReturn(valuation("450000.00"));
+        doThrow(new PersistenceException("chunk"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("duplicate key", new ConstraintViolationException(
+                        "duplicate key", new SQLException("duplicate key"), "truck_license_plate_key")))
+                .when(entityManager).flush();
+
+        TruckImportReportDTO report = importService.importTrucks(List.of(
+                new TruckEntity("ABC1234", "Scania", "R 450", 2022),
+                new TruckEntity("XYZ9876", "Scania", "R 450", 2022)));
+
+        assertEquals(List.of(TruckImportStatus.CREATED, TruckImportStatus.DUPLICATE),
+                report.getRows().stream().map(TruckImportResultDTO::getStatus).toList());
+        assertEquals(List.of(1, 2), report.getRows().stream().map(TruckImportResultDTO::getRow).toList());
+        verify(transactionManager, times(3)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).rollback(any());
+        verify(entityManager, times(4)).persist(any(TruckEntity.class));
+    }
+
+    private static FipeValuation valuation(String price) {
+        return new FipeValuation(new BigDecimal(price), YearMonth.of(2025, 11));
+    }
+}
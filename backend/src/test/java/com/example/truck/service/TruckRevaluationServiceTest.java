@@ -0,0 +1,198 @@
+package com.example.truck.service;
+
+import com.example.truck.dto.TruckFipeKeyDTO;
+import com.example.truck.entity.RevaluationRunEntity;
+import com.example.truck.entity.RevaluationStatus;
+import com.example.truck.repository.RevaluationRunRepository;
+import com.example.truck.repository.TruckRepository;
+import com.example.truck.service.fipe.FipeApiClient;
+import com.example.truck.service.fipe.FipeUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TruckRevaluationServiceTest {
+
+    @Mock
+    private TruckRepository truckRepository;
+
+    @Mock
+    private RevaluationRunRepository runRepository;
+
+    @Mock
+    private TruckService truckService;
+
+    @Mock
+    private FipeApiClient fipeApiClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final YearMonth NOVEMBER_2025 = YearMonth.of(2025, 11);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private TruckRevaluationService revaluationService;
+
+    @BeforeEach
+    void setUp() {
+        revaluationService = new TruckRevaluationService(truckRepository, runRepository, truckService, fipeApiClient,
+                executor, eventPublisher, 100, 3, Duration.ofMinutes(5), Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_fetchesEachCombinationOnce_andCheckpointsEveryChunk() {
+        holdLease();
+        when(truckRepository.findFipeKeysAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new TruckFipeKeyDTO(1L, "Scania", "R 450", 2022),
+                new TruckFipeKeyDTO(2L, "scania", " R  450", 2022),
+                new TruckFipeKeyDTO(3L, "Volvo", "FH 540", 2023)));
+        when(truckRepository.findFipeKeysAfter(eq(3L), any(Pageable.class))).thenReturn(List.of(
+                new TruckFipeKeyDTO(4L, "Scania", "R 450", 2022)));
+        when(truckRepository.findFipeKeysAfter(eq(4L), any(Pageable.class))).thenReturn(List.of());
+        when(truckService.revalueFipeValuation(eq("Scania"), eq("R 450"), eq(2022), any())).thenReturn(valuation("450000.00"));
+        when(truckService.revalueFipeValuation(eq("Volvo"), eq("FH 540"), eq(2023), any())).thenReturn(valuation("600000.00"));
+        when(truckRepository.updateFipePrice(anyCollection(), any(), any())).thenAnswer(i -> i.<List<?>>getArgument(0).size());
+        when(fipeApiClient.getReferenceMonth()).thenReturn("novembro de 2025");
+
+        RevaluationRunEntity run = new RevaluationRunEntity();
+        revaluationService.execute(run);
+
+        verify(truckService, times(1)).revalueFipeValuation(eq("Scania"), eq("R 450"), eq(2022), any());
+        verify(truckRepository).updateFipePrice(eq(List.of(1L, 2L)), eq(new BigDecimal("450000.00")), any());
+        verify(truckRepository).updateFipePrice(eq(List.of(4L)), eq(new BigDecimal("450000.00")), any());
+        verify(eventPublisher).publishEvent(new TruckPriceChangedEvent(List.of(1L, 2L), NOVEMBER_2025));
+        assertEquals(RevaluationStatus.COMPLETED, run.getStatus());
+        assertEquals(4L, run.getLastTruckId());
+        assertEquals(4, run.getProcessed());
+        assertEquals(4, run.getUpdated());
+        assertEquals("novembro de 2025", run.getReferenceMonth());
+        verify(runRepository).release(isNull(), anyString());
+    }
+
+    @Test
+    void execute_pausesWithoutAdvancing_whenFipeIsUnavailable() {
+        holdLease();
+        when(truckRepository.findFipeKeysAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new TruckFipeKeyDTO(1L, "Scania", "R 450", 2022)));
+        when(truckService.revalueFipeValuation(anyString(), anyString(), anyInt(), any()))
+                .thenThrow(new FipeUnavailableException("FIPE indisponível no momento."));
+
+        RevaluationRunEntity run = new RevaluationRunEntity();
+        revaluationService.execute(run);
+
+        assertEquals(RevaluationStatus.PAUSED, run.getStatus());
+        assertEquals(0L, run.getLastTruckId());
+        verify(truckRepository, never()).updateFipePrice(anyCollection(), any(), any());
+    }
+
+    @Test
+    void execute_stopsWithoutTouchingTheRun_whenAnotherInstanceTookTheLease() {
+        when(runRepository.claim(any(), anyString(), any(), any())).thenReturn(0);
+
+        RevaluationRunEntity run = new RevaluationRunEntity();
+        revaluationService.execute(run);
+
+        assertEquals(RevaluationStatus.RUNNING, run.getStatus());
+        verifyNoInteractions(truckRepository, truckService);
+        verify(runRepository, never()).save(any());
+    }
+
+    @Test
+    void start_refusesRunClaimedByAnotherInstance() {
+        RevaluationRunEntity running = new RevaluationRunEntity();
+        running.setId(7L);
+        when(runRepository.findFirstByStatusInOrderByIdDesc(anyCollection())).thenReturn(Optional.of(running));
+        when(runRepository.claim(eq(7L), anyString(), any(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> revaluationService.start());
+
+        verify(runRepository, never()).save(any());
+        verifyNoInteractions(truckRepository);
+    }
+
+    @Test
+    void start_closesPausedRunOfAnEarlierMonth_andStartsOverFromTheFirstTruck() {
+        holdLease();
+        RevaluationRunEntity paused = new RevaluationRunEntity();
+        paused.setId(7L);
+        paused.setStatus(RevaluationStatus.PAUSED);
+        paused.setLastTruckId(40L);
+        paused.setReferenceMonth("novembro de 2025");
+        when(runRepository.findFirstByStatusInOrderByIdDesc(anyCollection())).thenReturn(Optional.of(paused));
+        when(fipeApiClient.getReferenceMonth()).thenReturn("dezembro de 2025 ");
+
+        RevaluationRunEntity run = revaluationService.start();
+
+        assertEquals(RevaluationStatus.SUPERSEDED, paused.getStatus());
+        assertNotNull(paused.getFinishedDate());
+        assertNotSame(paused, run);
+        assertEquals(0L, run.getLastTruckId());
+        verify(runRepository).release(7L, run.getClaimedBy());
+    }
+
+    @Test
+    void execute_startsOver_whenTheReferenceMonthChangesMidRun() {
+        holdLease();
+        when(truckRepository.findFipeKeysAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new TruckFipeKeyDTO(1L, "Scania", "R 450", 2022)));
+        when(truckRepository.findFipeKeysAfter(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(truckService.revalueFipeValuation(eq("Scania"), eq("R 450"), eq(2022), any()))
+                .thenReturn(valuation("450000.00"))
+                .thenReturn(new FipeValuation(new BigDecimal("460000.00"), YearMonth.of(2025, 12)));
+        when(truckRepository.updateFipePrice(anyCollection(), any(), any())).thenReturn(1);
+        when(fipeApiClient.getReferenceMonth()).thenReturn("dezembro de 2025");
+
+        RevaluationRunEntity run = new RevaluationRunEntity();
+        run.setId(7L);
+        run.setReferenceMonth("novembro de 2025");
+        revaluationService.execute(run);
+
+        assertEquals(RevaluationStatus.SUPERSEDED, run.getStatus());
+        verify(truckService, times(2)).revalueFipeValuation(eq("Scania"), eq("R 450"), eq(2022), any());
+        verify(truckRepository).updateFipePrice(eq(List.of(1L)), eq(new BigDecimal("460000.00")), any());
+    }
+
+    @Test
+    void resumePausedRun_doesNothing_whenTheLatestRunIsNotPaused() {
+        RevaluationRunEntity completed = new RevaluationRunEntity();
+        completed.setStatus(RevaluationStatus.COMPLETED);
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(completed));
+
+        revaluationService.resumePausedRun();
+
+        verify(runRepository, never()).findFirstByStatusInOrderByIdDesc(anyCollection());
+        verify(runRepository, never()).save(any());
+    }
+
+    private void holdLease() {
+        when(runRepository.claim(any(), anyString(), any(), any())).thenReturn(1);
+        when(runRepository.save(any(RevaluationRunEntity.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    private static FipeValuation valuation(String price) {
+        return new FipeValuation(new BigDecimal(price), NOVEMBER_2025);
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.truck.service;
 
+import com.example.truck.dto.TruckCursor;
+import com.example.truck.dto.TruckFilterDTO;
+import com.example.truck.dto.TruckPageDTO;
+import com.example.truck.dto.TruckSummaryDTO;
 import com.example.truck.dto.fipe.FipePriceResponseDTO;
 import com.example.truck.dto.fipe.FipeYearDTO;
 import com.example.truck.entity.TruckEntity;
 import com.example.truck.repository.TruckRepository;
 import com.example.truck.service.fipe.FipeApiClient;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,16 +44,22 @@ class TruckServiceTest {
     @Mock
     private FipeApiClient fipeApiClient;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private TruckService truckService;
 
     private TruckEntity validTruck;
     private FipePriceResponseDTO fipePriceResponse;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 
     @BeforeEach
     void setUp() {
+        truckService = new TruckService(truckRepository, fipeApiClient, eventPublisher, meterRegistry, Runnable::run);
+
         validTruck = new TruckEntity();
         validTruck.setId(1L);
         validTruck.setLicensePlate("ABC1234");
@@ -62,57 +80,107 @@ class TruckServiceTest {
 
     @Test
     void testCreateTruck_Success() {
-        when(truckRepository.existsByLicensePlate(anyString())).thenReturn(false);
         when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
         when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
         when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
                 .thenReturn(List.of(mkYear("2022", "2022 Gasolina")));
         when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2022"))).thenReturn(fipePriceResponse);
-        when(truckRepository.save(any(TruckEntity.class))).thenReturn(validTruck);
+        when(truckRepository.insertIfAbsent(any(TruckEntity.class))).thenReturn(true);
 
         TruckEntity result = truckService.createTruck(validTruck);
 
         assertNotNull(result);
         assertEquals(new BigDecimal("450000.00"), result.getFipePrice());
-        verify(truckRepository).existsByLicensePlate("ABC1234");
-        verify(truckRepository).save(any(TruckEntity.class));
+        verify(truckRepository).insertIfAbsent(validTruck);
+        verify(truckRepository).isCachedLicensePlate("ABC1234");
+        verify(eventPublisher).publishEvent(any(TruckPriceChangedEvent.class));
     }
 
     @Test
-    void testCreateTruck_ThrowsException_WhenLicensePlateExists() {
-        when(truckRepository.existsByLicensePlate(anyString())).thenReturn(true);
+    void createTruck_rejectsKnownPlate_beforeQueryingFipe() {
+        when(truckRepository.isCachedLicensePlate("ABC1234")).thenReturn(true);
 
         assertThrows(IllegalArgumentException.class, () -> truckService.createTruck(validTruck));
 
-        verify(truckRepository, never()).save(any(TruckEntity.class));
+        verifyNoInteractions(fipeApiClient);
+        verify(truckRepository, never()).insertIfAbsent(any(TruckEntity.class));
+    }
+
+    @Test
+    void testCreateTruck_ThrowsException_WhenLicensePlateIsInsertedConcurrently() {
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
+        when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
+        when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
+                .thenReturn(List.of(mkYear("2022", "2022 Gasolina")));
+        when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2022"))).thenReturn(fipePriceResponse);
+        when(truckRepository.insertIfAbsent(any(TruckEntity.class))).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> truckService.createTruck(validTruck));
+
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void testCreateTruck_ThrowsException_WhenFipeBrandNotFound() {
-        when(truckRepository.existsByLicensePlate(anyString())).thenReturn(false);
         when(fipeApiClient.getBrandCode(anyString())).thenReturn(null);
 
         assertThrows(IllegalArgumentException.class, () -> truckService.createTruck(validTruck));
 
-        verify(truckRepository, never()).save(any(TruckEntity.class));
+        verify(truckRepository, never()).insertIfAbsent(any(TruckEntity.class));
+    }
+
+    private TruckSummaryDTO mkSummary(long id) {
+        return new TruckSummaryDTO(id, "ABC1234", "Scania", "R 450", 2022,
+                new BigDecimal("450000.00"), LocalDateTime.of(2025, 1, 1, 12, 0));
     }
 
     @Test
-    void testGetAllTrucks_ReturnsListOfTrucks() {
-        when(truckRepository.findAll()).thenReturn(Collections.singletonList(validTruck));
+    void testGetTrucks_ReturnsPageWithNextCursor() {
+        TruckFilterDTO filter = new TruckFilterDTO();
+        filter.setLimit(2);
+        when(truckRepository.findPage(eq(filter), isNull(), eq(3)))
+                .thenReturn(List.of(mkSummary(1), mkSummary(2), mkSummary(3)));
 
-        List<TruckEntity> result = truckService.getAllTrucks();
+        TruckPageDTO result = truckService.getTrucks(filter);
 
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(truckRepository).findAll();
+        assertEquals(2, result.getItems().size());
+        assertNotNull(result.getNextCursor());
+        assertEquals(2L, TruckCursor.decode(result.getNextCursor()).id());
+    }
+
+    @Test
+    void testGetTrucks_LastPageHasNoCursor() {
+        TruckFilterDTO filter = new TruckFilterDTO();
+        filter.setCursor(new TruckCursor(TruckFilterDTO.SORT_ID, 2L, null).encode());
+        when(truckRepository.findPage(eq(filter), eq(new TruckCursor(TruckFilterDTO.SORT_ID, 2L, null)), eq(51)))
+                .thenReturn(List.of(mkSummary(3)));
+
+        TruckPageDTO result = truckService.getTrucks(filter);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetTrucks_ThrowsException_WhenCursorComesFromAnotherSort() {
+        TruckFilterDTO filter = new TruckFilterDTO();
+        filter.setCursor(new TruckCursor(TruckFilterDTO.SORT_UPDATED_DATE, 2L, LocalDateTime.of(2025, 1, 1, 12, 0)).encode());
+
+        assertThrows(IllegalArgumentException.class, () -> truckService.getTrucks(filter));
+        verifyNoInteractions(truckRepository);
+    }
+
+    @Test
+    void testGetTrucks_ThrowsException_WhenCursorIsInvalid() {
+        TruckFilterDTO filter = new TruckFilterDTO();
+        filter.setCursor("not-a-cursor");
+
+        assertThrows(IllegalArgumentException.class, () -> truckService.getTrucks(filter));
     }
 
     @Test
     void testUpdateTruck_Success() {
         when(truckRepository.findById(anyLong())).thenReturn(Optional.of(validTruck));
-        when(truckRepository.existsByLicensePlate(anyString())).thenReturn(false);
         when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
         when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
         when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
@@ -155,11 +223,169 @@ class TruckServiceTest {
         existingTruckWithSamePlate.setManufacturingYear(2023);
 
         when(truckRepository.findById(anyLong())).thenReturn(Optional.of(validTruck));
-        when(truckRepository.existsByLicensePlate(anyString())).thenReturn(true);
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
+        when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
+        when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
+                .thenReturn(List.of(mkYear("2023-1", "2023 Gasolina")));
+        when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2023-1"))).thenReturn(fipePriceResponse);
+        when(truckRepository.save(any(TruckEntity.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key"), "truck_license_plate_key")));
 
         assertThrows(IllegalArgumentException.class, () -> truckService.updateTruck(1L, existingTruckWithSamePlate));
 
+        verify(truckRepository, never()).isCachedLicensePlate(anyString());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateTruck_rejectsStaleVersion_withCurrentState() {
+        validTruck.setVersion(3L);
+        when(truckRepository.findById(anyLong())).thenReturn(Optional.of(validTruck));
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
+        when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
+        when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
+                .thenReturn(List.of(mkYear("2023-1", "2023 Gasolina")));
+        when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2023-1"))).thenReturn(fipePriceResponse);
+
+        TruckEntity staleDetails = new TruckEntity("XYZ9876", "Volvo", "FH 540", 2023);
+        staleDetails.setVersion(2L);
+
+        TruckConflictException e = assertThrows(TruckConflictException.class,
+                () -> truckService.updateTruck(1L, staleDetails));
+
+        assertSame(validTruck, e.getCurrent());
+        assertEquals("ABC1234", e.getCurrent().getLicensePlate());
         verify(truckRepository, never()).save(any(TruckEntity.class));
+        assertEquals(1, meterRegistry.get("truck.write").tags("operation", "update", "outcome", "conflict").timer().count());
+    }
+
+    @Test
+    void updateTruck_reportsConflict_whenConcurrentWriteCommitsFirst() {
+        TruckEntity current = new TruckEntity("DEF5678", "Scania", "R 450", 2022);
+        current.setVersion(4L);
+        when(truckRepository.findById(anyLong())).thenReturn(Optional.of(validTruck), Optional.of(current));
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
+        when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
+        when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
+                .thenReturn(List.of(mkYear("2023-1", "2023 Gasolina")));
+        when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2023-1"))).thenReturn(fipePriceResponse);
+        when(truckRepository.save(any(TruckEntity.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(TruckEntity.class, 1L));
+
+        TruckConflictException e = assertThrows(TruckConflictException.class,
+                () -> truckService.updateTruck(1L, new TruckEntity("XYZ9876", "Volvo", "FH 540", 2023)));
+
+        assertSame(current, e.getCurrent());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void resolveFipeValuation_reusesSpeculativePrice_whenYearCodeMatches() {
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-3", "2022 Diesel")));
+        when(fipeApiClient.getPrice("1", "1", "2022-3")).thenReturn(fipePriceResponse);
+
+        assertEquals(new BigDecimal("450000.00"), truckService.resolveFipeValuation("Scania", "R 450", 2022, true).price());
+
+        verify(fipeApiClient, times(1)).getPrice(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void resolveFipeValuation_doesNotSpeculate_whenYearsAreCached() {
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.hasCachedYears("1", "1")).thenReturn(true);
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-1", "2022 Gasolina")));
+        when(fipeApiClient.getPrice("1", "1", "2022-1")).thenReturn(fipePriceResponse);
+
+        assertEquals(new BigDecimal("450000.00"), truckService.resolveFipeValuation("Scania", "R 450", 2022, true).price());
+
+        verify(fipeApiClient, never()).getPrice("1", "1", "2022-3");
+    }
+
+    @Test
+    void resolveFipeValuation_neverSpeculates_forBackgroundCallers() {
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-1", "2022 Gasolina")));
+        when(fipeApiClient.getPrice("1", "1", "2022-1")).thenReturn(fipePriceResponse);
+
+        assertEquals(new BigDecimal("450000.00"), truckService.resolveFipeValuation("Scania", "R 450", 2022).price());
+
+        verify(fipeApiClient, never()).hasCachedYears(anyString(), anyString());
+        verify(fipeApiClient, never()).getPrice("1", "1", "2022-3");
+    }
+
+    @Test
+    void resolveFipeValuation_takesReferenceMonthFromThePriceResponse() {
+        fipePriceResponse.setReferenceMonth("outubro de 2025");
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-3", "2022 Diesel")));
+        when(fipeApiClient.getPrice("1", "1", "2022-3")).thenReturn(fipePriceResponse);
+
+        FipeValuation valuation = truckService.resolveFipeValuation("Scania", "R 450", 2022);
+
+        assertEquals(YearMonth.of(2025, 10), valuation.referenceMonth());
+        verify(fipeApiClient, never()).getReferenceMonth();
+    }
+
+    @Test
+    void revalueFipeValuation_takesPriceFromTheApi_underTheRateLimiter() {
+        RateLimiter rateLimiter = RateLimiter.ofDefaults("test");
+        when(fipeApiClient.rateLimited(eq(rateLimiter), any())).thenAnswer(i -> i.<Supplier<?>>getArgument(1).get());
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-3", "2022 Diesel")));
+        when(fipeApiClient.refreshPrice("1", "1", "2022-3")).thenReturn(fipePriceResponse);
+
+        assertEquals(new BigDecimal("450000.00"),
+                truckService.revalueFipeValuation("Scania", "R 450", 2022, rateLimiter).price());
+
+        verify(fipeApiClient, never()).getPrice(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void resolveFipeValuation_ignoresSpeculativePrice_whenYearCodeDiffers() {
+        FipePriceResponseDTO dieselPrice = new FipePriceResponseDTO();
+        dieselPrice.setPrice("R$ 1,00");
+
+        when(fipeApiClient.getBrandCode("Scania")).thenReturn("1");
+        when(fipeApiClient.getModelCode("1", "R 450")).thenReturn("1");
+        when(fipeApiClient.getYearsByModel("1", "1")).thenReturn(List.of(mkYear("2022-1", "2022 Gasolina")));
+        when(fipeApiClient.getPrice("1", "1", "2022-3")).thenReturn(dieselPrice);
+        when(fipeApiClient.getPrice("1", "1", "2022-1")).thenReturn(fipePriceResponse);
+
+        assertEquals(new BigDecimal("450000.00"), truckService.resolveFipeValuation("Scania", "R 450", 2022, true).price());
+    }
+
+    @Test
+    void updateTruck_reportsNotFound_evenWhenFipeFails() {
+        when(truckRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn(null);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> truckService.updateTruck(1L, validTruck));
+
+        assertEquals("Caminhão não encontrado com o ID: 1", e.getMessage());
+    }
+
+    @Test
+    void createTruck_recordsWriteAndPhaseTimers() {
+        when(fipeApiClient.getBrandCode(anyString())).thenReturn("1");
+        when(fipeApiClient.getModelCode(anyString(), anyString())).thenReturn("1");
+        when(fipeApiClient.getYearsByModel(eq("1"), eq("1")))
+                .thenReturn(List.of(mkYear("2022", "2022 Gasolina")));
+        when(fipeApiClient.getPrice(eq("1"), eq("1"), eq("2022"))).thenReturn(fipePriceResponse);
+        when(truckRepository.insertIfAbsent(any(TruckEntity.class))).thenReturn(true, false);
+
+        truckService.createTruck(validTruck);
+        assertThrows(IllegalArgumentException.class, () -> truckService.createTruck(validTruck));
+
+        assertEquals(1, meterRegistry.get("truck.write").tags("operation", "create", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("truck.write").tags("operation", "create", "outcome", "rejected").timer().count());
+        assertEquals(2, meterRegistry.get("truck.write.phase").tags("phase", "fipe").timer().count());
+        assertEquals(2, meterRegistry.get("truck.write.phase").tags("phase", "persist").timer().count());
     }
 
     @Test
@@ -0,0 +1,174 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeCacheStatsDTO;
+import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FipeCatalogCacheTest {
+
+    private FipeCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FipeCatalogCache(100, Duration.ofHours(1), 100, Duration.ofHours(1), 100, Duration.ofDays(31));
+    }
+
+    private FipePriceResponseDTO mkPrice(String value, String referenceMonth) {
+        FipePriceResponseDTO p = new FipePriceResponseDTO();
+        p.setPrice(value);
+        p.setReferenceMonth(referenceMonth);
+        return p;
+    }
+
+    private FipeCacheStatsDTO pricesStats() {
+        return cache.stats().stream().filter(s -> s.getName().equals("prices")).findFirst().orElseThrow();
+    }
+
+    @Test
+    void price_isLoadedOnce_andServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.price("/marcas/1/modelos/1/anos/2022-3", () -> {
+            loads.incrementAndGet();
+            return mkPrice("R$ 450.000,00", "outubro de 2025 ");
+        });
+        FipePriceResponseDTO cached = cache.price("/marcas/1/modelos/1/anos/2022-3", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("R$ 450.000,00", cached.getPrice());
+        assertEquals("outubro de 2025", cache.getReferenceMonth());
+        assertEquals(1, pricesStats().getHitCount());
+        assertEquals(1, pricesStats().getMissCount());
+    }
+
+    @Test
+    void price_isInvalidated_whenReferenceMonthRollsOver() {
+        cache.price("/marcas/1/modelos/1/anos/2022-3", () -> mkPrice("R$ 450.000,00", "outubro de 2025"));
+        cache.price("/marcas/1/modelos/2/anos/2021-3", () -> mkPrice("R$ 300.000,00", "novembro de 2025"));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.price("/marcas/1/modelos/1/anos/2022-3", () -> {
+            loads.incrementAndGet();
+            return mkPrice("R$ 440.000,00", "novembro de 2025");
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals("novembro de 2025", cache.getReferenceMonth());
+        assertEquals(1, pricesStats().getInvalidationCount());
+    }
+
+    @Test
+    void lastKnownGood_isServed_whenFipeIsUnavailable() {
+        cache.price("/marcas/1/modelos/1/anos/2022-3", () -> mkPrice("R$ 450.000,00", "outubro de 2025"));
+        cache.invalidateAll();
+
+        FipePriceResponseDTO stale = cache.price("/marcas/1/modelos/1/anos/2022-3", () -> {
+            throw new FipeUnavailableException("FIPE indisponível.");
+        });
+
+        assertEquals("R$ 450.000,00", stale.getPrice());
+        assertThrows(FipeUnavailableException.class, () -> cache.price("/marcas/1/modelos/2/anos/2022-3", () -> {
+            throw new FipeUnavailableException("FIPE indisponível.");
+        }));
+    }
+
+    @Test
+    void nullResponses_areNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.brands("/marcas", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        cache.brands("/marcas", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentMisses_shareASingleLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<FipePriceResponseDTO>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.price("/marcas/1/modelos/1/anos/2022-3", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return mkPrice("R$ 450.000,00", "outubro de 2025");
+                })));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.getCoalescedCalls() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            for (Future<FipePriceResponseDTO> result : results) {
+                assertEquals("R$ 450.000,00", result.get(5, TimeUnit.SECONDS).getPrice());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, cache.getCoalescedCalls());
+    }
+
+    @Test
+    void blockingLoads_doNotPinVirtualThreads() throws Exception {
+        List<String> pinned = new CopyOnWriteArrayList<>();
+
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(String.valueOf(event.getStackTrace())));
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 16; i++) {
+                    String path = "/marcas/1/modelos/" + (i % 4) + "/anos/2022-3";
+                    executor.submit(() -> cache.price(path, () -> {
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return mkPrice("R$ 450.000,00", "outubro de 2025");
+                    }));
+                }
+            }
+            recording.stop();
+        }
+
+        assertEquals(List.of(), pinned);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeBrandDTO;
+import com.example.truck.dto.fipe.FipeModelDTO;
+import com.example.truck.dto.fipe.FipeModelResponseDTO;
+import com.example.truck.dto.fipe.FipePriceResponseDTO;
+import com.example.truck.dto.fipe.FipeSnapshotDTO;
+import com.example.truck.dto.fipe.FipeYearDTO;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FipeMirrorTest {
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final FipeMirror mirror = new FipeMirror(true);
+    private FipeApiClient client;
+
+    @BeforeEach
+    void setUp() {
+        FipeCatalogCache cache = new FipeCatalogCache(100, Duration.ofHours(1), 100, Duration.ofHours(1), 100, Duration.ofDays(31));
+        client = new FipeApiClient(restTemplate, cache, CircuitBreaker.ofDefaults("fipe"), mirror,
+                new SimpleMeterRegistry(), 4, Duration.ofMillis(100));
+        mirror.load(snapshot());
+    }
+
+    private FipeSnapshotDTO snapshot() {
+        FipeBrandDTO brand = new FipeBrandDTO();
+        brand.setCode("109");
+        brand.setName("Scania");
+
+        FipeModelDTO model = new FipeModelDTO();
+        model.setCode("5940");
+        model.setName("R-450 6x4");
+        FipeModelResponseDTO models = new FipeModelResponseDTO();
+        models.setModels(List.of(model));
+
+        FipeYearDTO year = new FipeYearDTO();
+        year.setCode("2022-3");
+        year.setName("2022 Diesel");
+
+        FipePriceResponseDTO price = new FipePriceResponseDTO();
+        price.setPrice("R$ 450.000,00");
+        price.setReferenceMonth("outubro de 2025");
+
+        FipeSnapshotDTO snapshot = new FipeSnapshotDTO();
+        snapshot.setReferenceMonth("outubro de 2025");
+        snapshot.setBrands(List.of(brand));
+        snapshot.setModels(Map.of("109", models));
+        snapshot.setYears(Map.of("109/5940", List.of(year)));
+        snapshot.setPrices(Map.of("109/5940/2022-3", price));
+        return snapshot;
+    }
+
+    @Test
+    void offlineLookups_areAnsweredFromTheSnapshot() {
+        assertEquals("109", client.getBrandCode("scania"));
+        assertEquals("5940", client.getModelCode("109", "R-450 6x4"));
+        assertEquals("2022-3", client.getYearsByModel("109", "5940").getFirst().getCode());
+        assertEquals("R$ 450.000,00", client.getPrice("109", "5940", "2022-3").getPrice());
+        assertEquals("outubro de 2025", client.getReferenceMonth());
+
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void offlineMisses_areNotFound_withoutCallingTheApi() {
+        assertNull(client.getBrandCode("Volvo"));
+        assertNull(client.getPrice("109", "5940", "2023-3"));
+        assertTrue(client.getYearsByModel("109", "9999").isEmpty());
+
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void getModelsByBrand_returnsACopy_thatCannotChangeTheCatalog() {
+        FipeModelResponseDTO models = client.getModelsByBrand("109");
+        models.setModels(List.of());
+
+        assertThrows(UnsupportedOperationException.class, () -> client.getModelsByBrand("109").getModels().clear());
+        assertEquals("5940", client.getModelCode("109", "R-450 6x4"));
+        assertEquals(1, client.getModelsByBrand("109").getModels().size());
+    }
+}
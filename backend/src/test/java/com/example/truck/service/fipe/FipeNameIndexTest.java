@@ -0,0 +1,63 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeBrandDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FipeNameIndexTest {
+
+    private FipeBrandDTO mkBrand(String code, String name) {
+        FipeBrandDTO b = new FipeBrandDTO();
+        b.setCode(code);
+        b.setName(name);
+        return b;
+    }
+
+    private final FipeNameIndex index = FipeNameIndex.of(
+            List.of(mkBrand("109", "MERCEDES-BENZ"), mkBrand("102", "Agrale"), mkBrand("114", "VOLVO")),
+            FipeBrandDTO::getName, FipeBrandDTO::getCode);
+
+    @Test
+    void find_matchesExactName() {
+        assertEquals("109", index.find("MERCEDES-BENZ"));
+    }
+
+    @Test
+    void find_ignoresCaseAccentsAndExtraWhitespace() {
+        assertEquals("109", index.find("mercedes-benz"));
+        assertEquals("102", index.find("  Agrále "));
+        assertEquals("114", index.find("volvo"));
+    }
+
+    @Test
+    void find_returnsNull_whenNameIsUnknown() {
+        assertNull(index.find("Scania"));
+        assertNull(index.find(null));
+    }
+
+    @Test
+    void normalize_collapsesWhitespace() {
+        assertEquals("fh 540 6x4", FipeNameIndex.normalize(" FH  540\t6x4 "));
+    }
+
+    @Test
+    void normalize_removesAccentsAndKeepsOtherSymbols() {
+        assertEquals("mercedes-benz acao 1.620/59", FipeNameIndex.normalize("\nMERCEDES-BENZ  Ação 1.620/59"));
+        assertEquals("", FipeNameIndex.normalize("  "));
+    }
+
+    @Test
+    void resolve_acceptsKnownCodes_andTreatsOtherNumbersAsNames() {
+        FipeNameIndex models = FipeNameIndex.of(
+                List.of(mkBrand("5940", "R-450 6x4"), mkBrand("7001", "1620")),
+                FipeBrandDTO::getName, FipeBrandDTO::getCode);
+
+        assertEquals("5940", models.resolve("5940"));
+        assertEquals("7001", models.resolve("1620"));
+        assertEquals("5940", models.resolve("r-450  6x4"));
+        assertNull(models.resolve("9999"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.truck.service.fipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FipePriceParserTest {
+
+    @Test
+    void parse_readsBrlFormat_keepingScale() {
+        assertEquals(new BigDecimal("450000.00"), FipePriceParser.parse("R$ 450.000,00"));
+        assertEquals(new BigDecimal("1234567.89"), FipePriceParser.parse("R$ 1.234.567,89"));
+        assertEquals(new BigDecimal("12"), FipePriceParser.parse("R$ 12"));
+        assertEquals(new BigDecimal("0.5"), FipePriceParser.parse(",5"));
+    }
+
+    @Test
+    void parse_fallsBack_forValuesBeyondLongRange() {
+        assertEquals(new BigDecimal("99999999999999999999.99"),
+                FipePriceParser.parse("R$ 99.999.999.999.999.999.999,99"));
+    }
+
+    @Test
+    void parse_rejectsValuesWithoutDigits_orWithTwoDecimalSeparators() {
+        assertThrows(NumberFormatException.class, () -> FipePriceParser.parse("R$ -"));
+        assertThrows(NumberFormatException.class, () -> FipePriceParser.parse("1,2,3"));
+        assertThrows(NumberFormatException.class, () -> FipePriceParser.parse(null));
+    }
+}
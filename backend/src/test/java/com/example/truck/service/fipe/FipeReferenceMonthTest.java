@@ -0,0 +1,24 @@
+package com.example.truck.service.fipe;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FipeReferenceMonthTest {
+
+    @Test
+    void parse_readsPortugueseMonthAndYear() {
+        assertEquals(Optional.of(YearMonth.of(2025, 10)), FipeReferenceMonth.parse("outubro de 2025 "));
+        assertEquals(Optional.of(YearMonth.of(2024, 3)), FipeReferenceMonth.parse("Março de 2024"));
+    }
+
+    @Test
+    void parse_returnsEmpty_forUnknownFormats() {
+        assertTrue(FipeReferenceMonth.parse(null).isEmpty());
+        assertTrue(FipeReferenceMonth.parse("10/2025").isEmpty());
+        assertTrue(FipeReferenceMonth.parse("brumário de 2025").isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.truck.service.fipe;
+
+import com.example.truck.dto.fipe.FipeModelDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FipeSearchIndexTest {
+
+    private FipeModelDTO mkModel(String code, String name) {
+        FipeModelDTO m = new FipeModelDTO();
+        m.setCode(code);
+        m.setName(name);
+        return m;
+    }
+
+    private final FipeSearchIndex<FipeModelDTO> index = FipeSearchIndex.of(List.of(
+            mkModel("1", "FH 540 6x4 2p (diesel)(E5)"),
+            mkModel("2", "FH 460 6x2 2p (diesel)(E5)"),
+            mkModel("3", "FH-12 380 4x2 2p (diesel)"),
+            mkModel("4", "VM 270 6x4 2p (diesel)(E5)"),
+            mkModel("5", "Constellation 24.280 6x2 3p (diesel)")), FipeModelDTO::getName);
+
+    private List<String> codes(String query, int limit) {
+        return index.search(query, limit).stream().map(FipeModelDTO::getCode).toList();
+    }
+
+    @Test
+    void search_matchesEveryTokenByPrefix() {
+        assertEquals(List.of("1"), codes("fh 54", 10));
+        assertEquals(List.of("1", "4"), codes("6x4", 10));
+    }
+
+    @Test
+    void search_ranksExactTokensAbovePrefixes() {
+        FipeSearchIndex<FipeModelDTO> actros = FipeSearchIndex.of(
+                List.of(mkModel("10", "Actros 2651 S 6x4"), mkModel("11", "Actros 265 6x4")), FipeModelDTO::getName);
+
+        assertEquals(List.of("11", "10"), actros.search("actros 265", 10).stream().map(FipeModelDTO::getCode).toList());
+    }
+
+    @Test
+    void search_breaksTiesByName_andLimitsResults() {
+        assertEquals(List.of("2", "1"), codes("fh", 2));
+    }
+
+    @Test
+    void search_toleratesOneTypo() {
+        assertEquals(List.of("5"), codes("constelation", 10));
+        assertEquals(List.of("5"), codes("cosnt", 10));
+        assertEquals(List.of("2", "1", "4"), codes("dieesl e5", 10));
+    }
+
+    @Test
+    void search_ignoresCaseAccentsAndPunctuation() {
+        assertEquals(List.of("3"), codes("FH-12", 10));
+        assertEquals(List.of("5"), codes("Constellatión 24.280", 10));
+    }
+
+    @Test
+    void search_returnsEmpty_whenAnyTokenDoesNotMatch() {
+        assertEquals(List.of(), codes("fh 999", 10));
+        assertEquals(List.of(), codes("  ", 10));
+        assertEquals(List.of(), codes(null, 10));
+    }
+
+    @Test
+    void withinOneEdit_acceptsSingleEdits() {
+        assertTrue(FipeSearchIndex.withinOneEdit("volvo", "volvo"));
+        assertTrue(FipeSearchIndex.withinOneEdit("volov", "volvo"));
+        assertTrue(FipeSearchIndex.withinOneEdit("volo", "volvo"));
+        assertTrue(FipeSearchIndex.withinOneEdit("vollvo", "volvo"));
+        assertTrue(FipeSearchIndex.withinOneEdit("volvi", "volvo"));
+        assertFalse(FipeSearchIndex.withinOneEdit("vlvi", "volvo"));
+        assertFalse(FipeSearchIndex.withinOneEdit("ovlov", "volvo"));
+    }
+}
@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpHeaders } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 
 export interface Truck {
@@ -9,6 +9,12 @@ export interface Truck {
   model: string;
   manufacturingYear: number;
   fipePrice?: number;
+  version?: number;
+}
+
+export interface TruckPage {
+  items: Truck[];
+  nextCursor: string | null;
 }
 
 export interface FipeOption {
@@ -36,20 +42,30 @@ export class TruckService {
 
   constructor(private http: HttpClient) {}
 
-  getTrucks(): Observable<Truck[]> {
-    return this.http.get<Truck[]>(this.apiUrl);
+  getTrucks(cursor?: string | null): Observable<TruckPage> {
+    let params = new HttpParams().set('sort', 'updatedDate');
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<TruckPage>(this.apiUrl, { params });
   }
 
   getTruckById(id: number): Observable<Truck> {
     return this.http.get<Truck>(`${this.apiUrl}/${id}`);
   }
 
-  getBrands(): Observable<FipeOption[]> {
-    return this.http.get<FipeOption[]>(`${this.apiUrl}/fipe/brands`);
+  getBrands(query?: string, limit = 20): Observable<FipeOption[]> {
+    return this.http.get<FipeOption[]>(`${this.apiUrl}/fipe/brands`, { params: this.searchParams(query, limit) });
+  }
+
+  getModels(brandCode: string, query?: string, limit = 20): Observable<FipeOption[]> {
+    return this.http.get<FipeOption[]>(`${this.apiUrl}/fipe/brands/${brandCode}/models`, {
+      params: this.searchParams(query, limit)
+    });
   }
 
-  getModels(brandCode: string): Observable<FipeOption[]> {
-    return this.http.get<FipeOption[]>(`${this.apiUrl}/fipe/brands/${brandCode}/models`);
+  private searchParams(query: string | undefined, limit: number): HttpParams {
+    return query ? new HttpParams().set('q', query).set('limit', limit) : new HttpParams();
   }
 
   getYears(brandCode: string, modelCode: string): Observable<FipeOption[]> {
@@ -64,12 +80,18 @@ export class TruckService {
     );
   }
 
-  createTruck(payload: Truck): Observable<Truck> {
-    return this.http.post<Truck>(this.apiUrl, payload, this.httpOptions);
+  createTruck(payload: Truck, idempotencyKey?: string): Observable<Truck> {
+    return this.http.post<Truck>(this.apiUrl, payload, this.writeOptions(idempotencyKey));
+  }
+
+  updateTruck(id: number, payload: Truck, idempotencyKey?: string): Observable<Truck> {
+    return this.http.put<Truck>(`${this.apiUrl}/${id}`, payload, this.writeOptions(idempotencyKey));
   }
 
-  updateTruck(id: number, payload: Truck): Observable<Truck> {
-    return this.http.put<Truck>(`${this.apiUrl}/${id}`, payload, this.httpOptions);
+  private writeOptions(idempotencyKey?: string) {
+    return idempotencyKey
+      ? { headers: this.httpOptions.headers.set('Idempotency-Key', idempotencyKey) }
+      : this.httpOptions;
   }
   
 }
@@ -25,6 +25,9 @@ export class TruckFormComponent implements OnInit {
   models: FipeOption[] = [];
   years:  FipeOption[] = [];
   fipePrice: number | null = null;
+  version: number | undefined;
+  // reenvios do mesmo formulário (duplo clique, timeout) não repetem a gravação
+  private idempotencyKey = crypto.randomUUID();
 
   constructor(
     private fb: FormBuilder,
@@ -132,6 +135,7 @@ export class TruckFormComponent implements OnInit {
           manufacturingYear: truck.manufacturingYear
         });
         this.fipePrice = truck.fipePrice ?? null;
+        this.version = truck.version;
         this.isLoading = false;
       },
       error: () => {
@@ -155,24 +159,33 @@ export class TruckFormComponent implements OnInit {
       brand: brandName,
       model: modelName,
       manufacturingYear: this.truckForm.getRawValue().manufacturingYear,
-      fipePrice: this.fipePrice ?? undefined
+      fipePrice: this.fipePrice ?? undefined,
+      version: this.version
     };
 
     this.isLoading = true;
 
     if (this.isEditMode) {
-      this.truckService.updateTruck(this.truckId, payload).subscribe({
+      this.truckService.updateTruck(this.truckId, payload, this.idempotencyKey).subscribe({
         next: () => this.router.navigate(['/trucks']),
         error: (err) => {
-          this.errorMessage = err?.message || 'Erro ao atualizar caminhão.';
+          this.idempotencyKey = crypto.randomUUID();
+          if (err?.status === 409 && err.error?.version !== undefined) {
+            this.version = err.error.version;
+            this.fipePrice = err.error.fipePrice ?? null;
+            this.errorMessage = 'O caminhão foi alterado por outro usuário. Confira os dados e salve novamente.';
+          } else {
+            this.errorMessage = err?.message || 'Erro ao atualizar caminhão.';
+          }
           this.isLoading = false;
         },
         complete: () => (this.isLoading = false)
       });
     } else {
-      this.truckService.createTruck(payload).subscribe({
+      this.truckService.createTruck(payload, this.idempotencyKey).subscribe({
         next: () => this.router.navigate(['/trucks']),
         error: (err) => {
+          this.idempotencyKey = crypto.randomUUID();
           this.errorMessage = err?.message || 'Erro ao cadastrar caminhão.';
           this.isLoading = false;
         },
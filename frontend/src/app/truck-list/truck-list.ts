@@ -1,5 +1,5 @@
 import { Component, OnInit } from '@angular/core';
-import { TruckService, Truck } from '../services/truck';
+import { TruckService, Truck, TruckPage } from '../services/truck';
 import { Router, RouterLink } from '@angular/router';
 import { CommonModule } from '@angular/common';
 
@@ -15,6 +15,7 @@ import { CommonModule } from '@angular/common';
 
 export class TruckListComponent implements OnInit {
   trucks: Truck[] = [];
+  nextCursor: string | null = null;
   errorMessage: string = '';
   isLoading: boolean = false;
 
@@ -24,11 +25,12 @@ export class TruckListComponent implements OnInit {
     this.listTrucks();
   }
 
-  listTrucks(): void {
+  listTrucks(cursor: string | null = null): void {
     this.isLoading = true;
-    this.truckService.getTrucks().subscribe({
-      next: (data: Truck[]) => {
-        this.trucks = data;
+    this.truckService.getTrucks(cursor).subscribe({
+      next: (page: TruckPage) => {
+        this.trucks = cursor ? [...this.trucks, ...page.items] : page.items;
+        this.nextCursor = page.nextCursor;
         this.errorMessage = '';
         this.isLoading = false;
       },
@@ -40,6 +42,12 @@ export class TruckListComponent implements OnInit {
     });
   }
 
+  loadMore(): void {
+    if (this.nextCursor) {
+      this.listTrucks(this.nextCursor);
+    }
+  }
+
   editTruck(id: number): void {
     this.router.navigate(['/trucks/edit', id]);
   }